@@ -0,0 +1,125 @@
+/**
+ * Copyright (C) 2010-2013 Andrei Pozolotin <Andrei.Pozolotin@gmail.com>
+ *
+ * All rights reserved. Licensed under the OSI BSD License.
+ *
+ * http://www.opensource.org/licenses/bsd-license.php
+ */
+package com.carrotgarden.eclipse.fileinstall.benchmark;
+
+import java.io.File;
+import java.io.InputStream;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.carrotgarden.eclipse.fileinstall.Conf;
+import com.carrotgarden.eclipse.fileinstall.util.ConfUtil;
+import com.carrotgarden.eclipse.fileinstall.util.FileUtil;
+import com.typesafe.config.Config;
+
+/**
+ * Master configuration handling: parse, snapshot, render.
+ * <p>
+ * Master file is the plug-in default configuration, as extracted into a new
+ * master project.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ConfBenchmark {
+
+	private File file;
+
+	private Conf conf;
+
+	private Config template;
+
+	private String[] values;
+
+	@Setup
+	public void setup() throws Exception {
+		file = File.createTempFile("master-", "-" + Conf.PROJ_FILE);
+		final InputStream input = Conf.class
+				.getResourceAsStream(Conf.KLAZ_PATH);
+		try {
+			FileUtil.publishStream(file, input);
+		} finally {
+			input.close();
+		}
+		conf = new Conf(ConfUtil.config(file));
+		template = conf.config().getConfig("fileinstall.template");
+		values = Conf.values("/workspace", "worker",
+				"/workspace/worker/target/classes");
+	}
+
+	@TearDown
+	public void tearDown() {
+		ConfUtil.configClear();
+		file.delete();
+	}
+
+	/**
+	 * Parse master file only.
+	 */
+	@Benchmark
+	public Config parse() {
+		return ConfUtil.configFile(file);
+	}
+
+	/**
+	 * Parse, merge with defaults, resolve and snapshot; cache bypassed.
+	 */
+	@Benchmark
+	public Conf snapshot() {
+		return new Conf(ConfUtil.configFile(file)
+				.withFallback(ConfUtil.configPlug()).resolve());
+	}
+
+	/**
+	 * Cached configuration of unchanged master file.
+	 */
+	@Benchmark
+	public Config cached() {
+		return ConfUtil.config(file);
+	}
+
+	/**
+	 * Render fileinstall template section as properties text.
+	 */
+	@Benchmark
+	public String flatFile() {
+		return ConfUtil.flatFile(template);
+	}
+
+	/**
+	 * Render worker fileinstall.cfg content from compiled template.
+	 */
+	@Benchmark
+	public String render() {
+		return conf.fileinstallTemplate(values);
+	}
+
+	/**
+	 * Render worker fileinstall.cfg content and its digest, as done for each
+	 * cfg write decision.
+	 */
+	@Benchmark
+	public String digest() {
+		return FileUtil.digest(conf.fileinstallTemplate(values));
+	}
+
+}
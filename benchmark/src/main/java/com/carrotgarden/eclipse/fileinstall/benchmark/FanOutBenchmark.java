@@ -0,0 +1,182 @@
+/**
+ * Copyright (C) 2010-2013 Andrei Pozolotin <Andrei.Pozolotin@gmail.com>
+ *
+ * All rights reserved. Licensed under the OSI BSD License.
+ *
+ * http://www.opensource.org/licenses/bsd-license.php
+ */
+package com.carrotgarden.eclipse.fileinstall.benchmark;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.carrotgarden.eclipse.fileinstall.Metrics;
+import com.carrotgarden.eclipse.fileinstall.WorkspaceHarness;
+
+/**
+ * Manager fan-out of worker changes into master cfg files, over the
+ * simulated workspace of the test harness.
+ * <p>
+ * Every invocation is one complete outcome: all workers times masters cfg
+ * files written, or all verified and skipped after a rebuild; the measured
+ * time includes one quiet period.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+public class FanOutBenchmark {
+
+	/**
+	 * Master quiet period, kept short to expose manager cost.
+	 */
+	static final long QUIET_PERIOD = 50;
+
+	/**
+	 * Limit for one outcome; exceeding it fails the benchmark.
+	 */
+	static final long BUDGET = 60 * 1000;
+
+	@Param({ "10", "100", "1000" })
+	public int workers;
+
+	@Param({ "1", "5", "20" })
+	public int masters;
+
+	private String[] workerArray;
+
+	private WorkspaceHarness harness;
+
+	private final Metrics metrics = Metrics.instance();
+
+	/**
+	 * Simulated workspace with masters each monitoring all workers.
+	 */
+	private WorkspaceHarness harness() throws Exception {
+		final WorkspaceHarness harness = new WorkspaceHarness();
+		for (final String worker : workerArray) {
+			harness.worker(worker);
+		}
+		for (int index = 0; index < masters; index++) {
+			harness.master("master-" + index, QUIET_PERIOD, workerArray);
+		}
+		return harness;
+	}
+
+	private void await(final String label, final Callable<Boolean> condition)
+			throws Exception {
+		if (!WorkspaceHarness.await(BUDGET, condition)) {
+			throw new IllegalStateException(label + ": budget exceeded");
+		}
+	}
+
+	private Callable<Boolean> cfgPresent() {
+		return new Callable<Boolean>() {
+			@Override
+			public Boolean call() {
+				for (int index = 0; index < masters; index++) {
+					final String master = "master-" + index;
+					for (final String worker : workerArray) {
+						if (!harness.cfg(master, worker).exists()) {
+							return false;
+						}
+					}
+				}
+				return true;
+			}
+		};
+	}
+
+	@Setup(Level.Trial)
+	public void setup() {
+		workerArray = new String[workers];
+		for (int index = 0; index < workers; index++) {
+			workerArray[index] = "worker-" + index;
+		}
+	}
+
+	/**
+	 * Startup state: fresh workspace, manager not running.
+	 */
+	@State(Scope.Benchmark)
+	public static class Startup {
+
+		@Setup(Level.Invocation)
+		public void setup(final FanOutBenchmark bench) throws Exception {
+			bench.harness = bench.harness();
+		}
+
+		@TearDown(Level.Invocation)
+		public void tearDown(final FanOutBenchmark bench) throws Exception {
+			bench.harness.stop();
+		}
+
+	}
+
+	/**
+	 * Rebuild state: manager running, all cfg files written.
+	 */
+	@State(Scope.Benchmark)
+	public static class Rebuild {
+
+		@Setup(Level.Trial)
+		public void setup(final FanOutBenchmark bench) throws Exception {
+			bench.harness = bench.harness();
+			bench.harness.start();
+			bench.await("startup", bench.cfgPresent());
+		}
+
+		@TearDown(Level.Trial)
+		public void tearDown(final FanOutBenchmark bench) throws Exception {
+			bench.harness.stop();
+		}
+
+	}
+
+	/**
+	 * Manager start until every worker cfg of every master is written.
+	 */
+	@Benchmark
+	public void startup(final Startup state) throws Exception {
+		harness.start();
+		await("startup", cfgPresent());
+	}
+
+	/**
+	 * Build wave over all workers until every cfg is verified and skipped.
+	 */
+	@Benchmark
+	public void rebuild(final Rebuild state) throws Exception {
+		final long skipCount = metrics.confSkips.get();
+		final long cfgCount = (long) workers * masters;
+		for (final String worker : workerArray) {
+			harness.buildStart(worker);
+		}
+		for (final String worker : workerArray) {
+			harness.buildFinish(worker);
+		}
+		await("rebuild", new Callable<Boolean>() {
+			@Override
+			public Boolean call() {
+				return metrics.confSkips.get() - skipCount >= cfgCount;
+			}
+		});
+	}
+
+}
@@ -0,0 +1,168 @@
+/**
+ * Copyright (C) 2010-2013 Andrei Pozolotin <Andrei.Pozolotin@gmail.com>
+ *
+ * All rights reserved. Licensed under the OSI BSD License.
+ *
+ * http://www.opensource.org/licenses/bsd-license.php
+ */
+package com.carrotgarden.eclipse.fileinstall;
+
+import static com.carrotgarden.eclipse.fileinstall.ManagerTest.*;
+import static org.junit.Assert.*;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.concurrent.Callable;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.Parameterized;
+import org.junit.runners.Parameterized.Parameters;
+
+/**
+ * Manager on simulated workspace with hundreds of projects: workers times
+ * masters cfg fan-out at startup and on a build wave.
+ */
+@RunWith(Parameterized.class)
+public class ManagerScaleTest {
+
+	/**
+	 * Minimum cfg operations per second, including the quiet period.
+	 */
+	static final long THROUGHPUT = 200;
+
+	/**
+	 * Worker count, master count.
+	 */
+	@Parameters
+	public static Collection<Object[]> data() {
+		return Arrays.asList(new Object[][] { { 100, 1 }, { 300, 3 },
+				{ 200, 5 } });
+	}
+
+	final int workerCount;
+
+	final int masterCount;
+
+	final String[] workerArray;
+
+	WorkspaceHarness harness;
+
+	final Metrics metrics = Metrics.instance();
+
+	public ManagerScaleTest(final int workerCount, final int masterCount) {
+		this.workerCount = workerCount;
+		this.masterCount = masterCount;
+		this.workerArray = new String[workerCount];
+		for (int index = 0; index < workerCount; index++) {
+			workerArray[index] = "worker-" + index;
+		}
+	}
+
+	@Before
+	public void setUp() throws Exception {
+		harness = new WorkspaceHarness();
+		for (final String worker : workerArray) {
+			harness.worker(worker);
+		}
+		for (int index = 0; index < masterCount; index++) {
+			harness.master("master-" + index, QUIET_PERIOD, workerArray);
+		}
+	}
+
+	@After
+	public void tearDown() throws Exception {
+		harness.stop();
+	}
+
+	int cfgCount() {
+		return workerCount * masterCount;
+	}
+
+	Callable<Boolean> cfgPresent(final boolean isPresent) {
+		return new Callable<Boolean>() {
+			@Override
+			public Boolean call() {
+				for (int index = 0; index < masterCount; index++) {
+					final String master = "master-" + index;
+					for (final String worker : workerArray) {
+						if (harness.cfg(master, worker).exists() != isPresent) {
+							return false;
+						}
+					}
+				}
+				return true;
+			}
+		};
+	}
+
+	/**
+	 * Wait for condition within work scaled budget, verify throughput.
+	 */
+	void awaitThroughput(final String label, final Callable<Boolean> isReady)
+			throws Exception {
+		final long budget = QUIET_PERIOD + budget(cfgCount());
+		final long timeStart = System.currentTimeMillis();
+		assertTrue(label, WorkspaceHarness.await(budget, isReady));
+		final long timeReady = Math.max(1, System.currentTimeMillis()
+				- timeStart);
+		final long throughput = cfgCount() * 1000L / timeReady;
+		assertTrue(label + ": " + throughput + " cfg/s",
+				throughput >= THROUGHPUT / FACTOR);
+	}
+
+	@Test
+	public void startupFanOut() throws Exception {
+
+		final long writeCount = metrics.confWrites.get();
+		final long deleteCount = metrics.confDeletes.get();
+		final long verifyCount = metrics.verifyTime.count();
+
+		harness.start();
+		awaitThroughput("startup", cfgPresent(true));
+
+		/** Each worker verified once, each cfg written once. */
+		Thread.sleep(QUIET_PERIOD * 2);
+		assertEquals(cfgCount(), metrics.confWrites.get() - writeCount);
+		assertEquals(0, metrics.confDeletes.get() - deleteCount);
+		assertTrue(metrics.verifyTime.count() - verifyCount <= workerCount);
+
+	}
+
+	@Test
+	public void buildWaveFanOut() throws Exception {
+
+		harness.start();
+		awaitThroughput("startup", cfgPresent(true));
+		Thread.sleep(QUIET_PERIOD * 2);
+
+		final long writeCount = metrics.confWrites.get();
+		final long deleteCount = metrics.confDeletes.get();
+		final long skipCount = metrics.confSkips.get();
+		final long verifyCount = metrics.verifyTime.count();
+
+		/** Full rebuild inside one quiet period: one verify per worker. */
+		for (final String worker : workerArray) {
+			harness.buildStart(worker);
+		}
+		for (final String worker : workerArray) {
+			harness.buildFinish(worker);
+		}
+		awaitThroughput("rebuild", new Callable<Boolean>() {
+			@Override
+			public Boolean call() {
+				return metrics.confSkips.get() - skipCount >= cfgCount();
+			}
+		});
+
+		Thread.sleep(QUIET_PERIOD * 2);
+		assertEquals(workerCount, metrics.verifyTime.count() - verifyCount);
+		assertEquals(cfgCount(), metrics.confSkips.get() - skipCount);
+		assertEquals(0, metrics.confWrites.get() - writeCount);
+		assertEquals(0, metrics.confDeletes.get() - deleteCount);
+
+	}
+
+}
@@ -0,0 +1,415 @@
+/**
+ * Copyright (C) 2010-2013 Andrei Pozolotin <Andrei.Pozolotin@gmail.com>
+ *
+ * All rights reserved. Licensed under the OSI BSD License.
+ *
+ * http://www.opensource.org/licenses/bsd-license.php
+ */
+package com.carrotgarden.eclipse.fileinstall;
+
+import static org.junit.Assert.*;
+
+import java.io.File;
+import java.io.InputStream;
+import java.util.concurrent.Callable;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipFile;
+
+import org.eclipse.core.resources.IMarker;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Manager on simulated workspace; time budgets are wall clock limits for the
+ * expected cfg outcome, scaled by the amount of work and by
+ * -Dfileinstall.budget.factor on slow machines.
+ */
+public class ManagerTest {
+
+	static final long QUIET_PERIOD = 300;
+
+	/**
+	 * Time budget multiplier for slow machines.
+	 */
+	static final long FACTOR = Long.getLong("fileinstall.budget.factor", 1);
+
+	/**
+	 * Fixed part of a time budget: job scheduling and thread start.
+	 */
+	static final long BUDGET_BASE = 500;
+
+	/**
+	 * Per operation part of a time budget: one worker verify and cfg write.
+	 */
+	static final long BUDGET_UNIT = 2;
+
+	/**
+	 * Time budget for one event outcome, beyond the quiet period.
+	 */
+	static final long BUDGET = budget(1);
+
+	/**
+	 * Time budget for outcome of given number of cfg operations, beyond the
+	 * quiet period.
+	 */
+	static long budget(final int count) {
+		return FACTOR * (BUDGET_BASE + BUDGET_UNIT * count);
+	}
+
+	static Callable<Boolean> exists(final File file, final boolean isPresent) {
+		return new Callable<Boolean>() {
+			@Override
+			public Boolean call() {
+				return file.exists() == isPresent;
+			}
+		};
+	}
+
+	WorkspaceHarness harness;
+
+	final Metrics metrics = Metrics.instance();
+
+	@Before
+	public void setUp() throws Exception {
+		harness = new WorkspaceHarness();
+	}
+
+	@After
+	public void tearDown() throws Exception {
+		harness.stop();
+	}
+
+	/**
+	 * Start manager with one master over workers, wait for all cfg files.
+	 */
+	void startOne(final String... workerArray) throws Exception {
+		for (final String worker : workerArray) {
+			harness.worker(worker);
+		}
+		harness.master("master", QUIET_PERIOD, workerArray);
+		harness.start();
+		for (final String worker : workerArray) {
+			assertTrue(WorkspaceHarness.await(BUDGET,
+					exists(harness.cfg("master", worker), true)));
+		}
+	}
+
+	@Test
+	public void startupWithinBudget() throws Exception {
+
+		final int masterCount = 4;
+		final int workerCount = 16;
+
+		final String[] workerArray = new String[workerCount];
+		for (int index = 0; index < workerCount; index++) {
+			workerArray[index] = "worker-" + index;
+			harness.worker(workerArray[index]);
+		}
+		for (int index = 0; index < masterCount; index++) {
+			harness.master("master-" + index, QUIET_PERIOD, workerArray);
+		}
+
+		final long writeCount = metrics.confWrites.get();
+		final long deleteCount = metrics.confDeletes.get();
+
+		final long timeStart = System.currentTimeMillis();
+		harness.start();
+
+		final Callable<Boolean> isReady = new Callable<Boolean>() {
+			@Override
+			public Boolean call() {
+				for (int master = 0; master < masterCount; master++) {
+					for (final String worker : workerArray) {
+						if (!harness.cfg("master-" + master, worker).exists()) {
+							return false;
+						}
+					}
+				}
+				return true;
+			}
+		};
+		final long budget = budget(masterCount * workerCount);
+		assertTrue(WorkspaceHarness.await(budget, isReady));
+
+		final long timeReady = System.currentTimeMillis() - timeStart;
+		assertTrue("startup: " + timeReady + " ms", timeReady < budget);
+
+		/** One write per cfg, nothing to delete on a fresh workspace. */
+		assertEquals(masterCount * workerCount, metrics.confWrites.get()
+				- writeCount);
+		assertEquals(0, metrics.confDeletes.get() - deleteCount);
+
+	}
+
+	@Test
+	public void invalidMasterSkipped() throws Exception {
+
+		harness.worker("worker");
+		harness.master("master-1", QUIET_PERIOD, "worker");
+		harness.master("master-2", QUIET_PERIOD, "worker");
+		harness.master("master-3", QUIET_PERIOD, "worker");
+		harness.conf("master-2", "eclipse { list = [ worker ] }\n"
+				+ "fileinstall { file = \"@{eclipse-project-nam}.cfg\" }\n");
+
+		final long writeCount = metrics.confWrites.get();
+
+		harness.start();
+
+		assertTrue(WorkspaceHarness.await(BUDGET,
+				exists(harness.cfg("master-1", "worker"), true)));
+		assertTrue(WorkspaceHarness.await(BUDGET,
+				exists(harness.cfg("master-3", "worker"), true)));
+
+		/** Later events must not trip over the rejected master. */
+		harness.buildStart("worker");
+		harness.buildFinish("worker");
+		Thread.sleep(QUIET_PERIOD * 2);
+		assertTrue(harness.cfg("master-1", "worker").exists());
+		assertTrue(harness.cfg("master-3", "worker").exists());
+		assertEquals(2, metrics.confWrites.get() - writeCount);
+
+	}
+
+	@Test
+	public void buildEventsWithinQuietPeriod() throws Exception {
+
+		startOne("worker");
+		final File cfg = harness.cfg("master", "worker");
+
+		final long verifyCount = metrics.verifyTime.count();
+		final long writeCount = metrics.confWrites.get();
+		final long deleteCount = metrics.confDeletes.get();
+		final long skipCount = metrics.confSkips.get();
+
+		/** Two builds inside one quiet period apply once, final state only. */
+		harness.buildStart("worker");
+		harness.buildFinish("worker");
+		Thread.sleep(QUIET_PERIOD / 3);
+		harness.buildStart("worker");
+		harness.buildFinish("worker");
+
+		assertTrue(WorkspaceHarness.await(QUIET_PERIOD + BUDGET,
+				new Callable<Boolean>() {
+					@Override
+					public Boolean call() {
+						return metrics.confSkips.get() > skipCount;
+					}
+				}));
+		Thread.sleep(QUIET_PERIOD * 2);
+
+		assertEquals(1, metrics.verifyTime.count() - verifyCount);
+		assertEquals(0, metrics.confWrites.get() - writeCount);
+		assertEquals(0, metrics.confDeletes.get() - deleteCount);
+		assertEquals(1, metrics.confSkips.get() - skipCount);
+		assertTrue(cfg.exists());
+
+	}
+
+	@Test
+	public void errorMarkerAfterBuild() throws Exception {
+
+		startOne("worker");
+		final File cfg = harness.cfg("master", "worker");
+
+		final long flapCount = metrics.workerFlaps.get();
+		final long writeCount = metrics.confWrites.get();
+		final long deleteCount = metrics.confDeletes.get();
+
+		/** Build marker delta arrives after the build finish event. */
+		harness.buildStart("worker");
+		harness.buildFinish("worker");
+		final long marker = harness.markerAdd("worker",
+				IMarker.SEVERITY_ERROR);
+
+		assertTrue(WorkspaceHarness.await(QUIET_PERIOD + BUDGET,
+				exists(cfg, false)));
+		Thread.sleep(QUIET_PERIOD * 2);
+		assertFalse(cfg.exists());
+		assertEquals(1, metrics.workerFlaps.get() - flapCount);
+		assertEquals(1, metrics.confDeletes.get() - deleteCount);
+
+		/** Fixed error restores the cfg. */
+		harness.markerRemove("worker", marker);
+
+		assertTrue(WorkspaceHarness.await(BUDGET, exists(cfg, true)));
+		assertEquals(2, metrics.workerFlaps.get() - flapCount);
+		assertEquals(1, metrics.confWrites.get() - writeCount);
+
+	}
+
+	@Test
+	public void warningMarkerIgnored() throws Exception {
+
+		startOne("worker");
+		final File cfg = harness.cfg("master", "worker");
+
+		final long verifyCount = metrics.verifyTime.count();
+		final long eventCount = metrics.workerEvents.get();
+
+		harness.markerAdd("worker", IMarker.SEVERITY_WARNING);
+		Thread.sleep(QUIET_PERIOD * 2);
+
+		assertEquals(0, metrics.verifyTime.count() - verifyCount);
+		assertEquals(0, metrics.workerEvents.get() - eventCount);
+		assertTrue(cfg.exists());
+
+	}
+
+	@Test
+	public void workerCloseOpen() throws Exception {
+
+		startOne("worker-1", "worker-2");
+		final File cfg1 = harness.cfg("master", "worker-1");
+		final File cfg2 = harness.cfg("master", "worker-2");
+
+		final long writeCount = metrics.confWrites.get();
+		final long deleteCount = metrics.confDeletes.get();
+
+		harness.close("worker-1");
+		assertTrue(WorkspaceHarness.await(BUDGET, exists(cfg1, false)));
+		assertTrue(cfg2.exists());
+
+		harness.open("worker-1");
+		assertTrue(WorkspaceHarness.await(BUDGET, exists(cfg1, true)));
+		assertTrue(cfg2.exists());
+
+		/** Only the closed worker is touched. */
+		Thread.sleep(QUIET_PERIOD * 2);
+		assertEquals(1, metrics.confDeletes.get() - deleteCount);
+		assertEquals(1, metrics.confWrites.get() - writeCount);
+
+	}
+
+	@Test
+	public void launchHoldUntilStart() throws Exception {
+
+		harness.worker("worker");
+		harness.master("master", QUIET_PERIOD, "worker");
+		harness.launchConfig("master");
+		harness.start();
+		final File cfg = harness.cfg("master", "worker");
+
+		final long writeCount = metrics.confWrites.get();
+
+		/** Master with a launch config which is not running holds cfg. */
+		Thread.sleep(QUIET_PERIOD * 2);
+		assertFalse(cfg.exists());
+		assertEquals(0, metrics.confWrites.get() - writeCount);
+
+		harness.launchStart("master");
+		assertTrue(WorkspaceHarness.await(BUDGET, exists(cfg, true)));
+		assertEquals(1, metrics.confWrites.get() - writeCount);
+
+	}
+
+	@Test
+	public void launchHoldReleasedOnConfigRemove() throws Exception {
+
+		harness.worker("worker");
+		harness.master("master", QUIET_PERIOD, "worker");
+		harness.launchConfig("master");
+		harness.start();
+		final File cfg = harness.cfg("master", "worker");
+
+		Thread.sleep(QUIET_PERIOD * 2);
+		assertFalse(cfg.exists());
+
+		/** Master without a launch config has nothing to wait for. */
+		harness.launchConfigRemove("master");
+		assertTrue(WorkspaceHarness.await(BUDGET, exists(cfg, true)));
+
+	}
+
+	static String entry(final File jar, final String name) throws Exception {
+		final ZipFile zip = new ZipFile(jar);
+		try {
+			final ZipEntry entry = zip.getEntry(name);
+			if (entry == null) {
+				return null;
+			}
+			final InputStream input = zip.getInputStream(entry);
+			try {
+				final StringBuilder text = new StringBuilder();
+				int value;
+				while ((value = input.read()) >= 0) {
+					text.append((char) value);
+				}
+				return text.toString();
+			} finally {
+				input.close();
+			}
+		} finally {
+			zip.close();
+		}
+	}
+
+	static Callable<Boolean> hasEntry(final File jar, final String name,
+			final String text) {
+		return new Callable<Boolean>() {
+			@Override
+			public Boolean call() throws Exception {
+				return jar.exists() && text.equals(entry(jar, name));
+			}
+		};
+	}
+
+	@Test
+	public void bundleRepublishOnOutputChange() throws Exception {
+
+		final String conf = "eclipse { list = [ worker ], deploy = bundle,"
+				+ " quiet-period = " + QUIET_PERIOD + " }\n";
+
+		harness.worker("worker");
+		harness.output("worker", "one.txt", "one");
+		harness.output("worker", "pkg/two.txt", "two");
+		harness.master("master-1", QUIET_PERIOD, "worker");
+		harness.master("master-2", QUIET_PERIOD, "worker");
+		harness.conf("master-1", conf);
+		harness.conf("master-2", conf);
+
+		final long writeCount = metrics.confWrites.get();
+
+		harness.start();
+
+		final File jar1 = harness.bundle("master-1", "worker");
+		final File jar2 = harness.bundle("master-2", "worker");
+		assertTrue(WorkspaceHarness.await(BUDGET,
+				hasEntry(jar1, "pkg/two.txt", "two")));
+		assertTrue(WorkspaceHarness.await(BUDGET,
+				hasEntry(jar2, "pkg/two.txt", "two")));
+
+		/** Late output delta publishes changed entry, keeps the others. */
+		harness.output("worker", "pkg/two.txt", "two-next");
+
+		assertTrue(WorkspaceHarness.await(QUIET_PERIOD + BUDGET,
+				hasEntry(jar1, "pkg/two.txt", "two-next")));
+		assertTrue(WorkspaceHarness.await(BUDGET,
+				hasEntry(jar2, "pkg/two.txt", "two-next")));
+		assertEquals("one", entry(jar1, "one.txt"));
+		assertEquals("one", entry(jar2, "one.txt"));
+		assertNotNull(entry(jar1, "META-INF/MANIFEST.MF"));
+
+		/** One publish per master at start, one per master on change. */
+		Thread.sleep(QUIET_PERIOD * 2);
+		assertEquals(4, metrics.confWrites.get() - writeCount);
+
+	}
+
+	@Test
+	public void masterClose() throws Exception {
+
+		startOne("worker-1", "worker-2");
+		final File cfg1 = harness.cfg("master", "worker-1");
+		final File cfg2 = harness.cfg("master", "worker-2");
+
+		final long deleteCount = metrics.confDeletes.get();
+
+		harness.close("master");
+		assertTrue(WorkspaceHarness.await(BUDGET, exists(cfg1, false)));
+		assertTrue(WorkspaceHarness.await(BUDGET, exists(cfg2, false)));
+		assertEquals(2, metrics.confDeletes.get() - deleteCount);
+
+	}
+
+}
@@ -0,0 +1,871 @@
+/**
+ * Copyright (C) 2010-2013 Andrei Pozolotin <Andrei.Pozolotin@gmail.com>
+ *
+ * All rights reserved. Licensed under the OSI BSD License.
+ *
+ * http://www.opensource.org/licenses/bsd-license.php
+ */
+package com.carrotgarden.eclipse.fileinstall;
+
+import java.io.File;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.eclipse.core.resources.IFile;
+import org.eclipse.core.resources.IFolder;
+import org.eclipse.core.resources.IMarker;
+import org.eclipse.core.resources.IMarkerDelta;
+import org.eclipse.core.resources.IProject;
+import org.eclipse.core.resources.IResource;
+import org.eclipse.core.resources.IResourceChangeEvent;
+import org.eclipse.core.resources.IResourceChangeListener;
+import org.eclipse.core.resources.IResourceDelta;
+import org.eclipse.core.resources.IResourceDeltaVisitor;
+import org.eclipse.core.resources.IWorkspace;
+import org.eclipse.core.resources.IWorkspaceRoot;
+import org.eclipse.core.runtime.IPath;
+import org.eclipse.core.runtime.Path;
+import org.eclipse.core.runtime.jobs.Job;
+import org.eclipse.debug.core.ILaunch;
+import org.eclipse.debug.core.ILaunchConfiguration;
+import org.eclipse.debug.core.ILaunchConfigurationListener;
+import org.eclipse.debug.core.ILaunchManager;
+import org.eclipse.debug.core.ILaunchesListener2;
+import org.eclipse.jdt.core.IJavaProject;
+import org.eclipse.jdt.core.JavaCore;
+
+import com.carrotgarden.eclipse.fileinstall.util.FileUtil;
+import com.carrotgarden.eclipse.fileinstall.util.ProjectUtil;
+
+/**
+ * Headless manager harness: simulated workspace, projects, markers, resource
+ * events and launch manager, backed by a temporary folder; no platform
+ * singletons are touched.
+ */
+public class WorkspaceHarness {
+
+	/**
+	 * Simulated project state.
+	 */
+	class Fake {
+
+		final String name;
+
+		final File folder;
+
+		final IProject project;
+
+		final List<String> natureList = new CopyOnWriteArrayList<String>();
+
+		/**
+		 * Problem markers: marker id to severity.
+		 */
+		final Map<Long, Integer> //
+		markerMap = new ConcurrentHashMap<Long, Integer>();
+
+		volatile boolean isPresent;
+
+		volatile boolean isOpen;
+
+		Fake(final String name) {
+			this.name = name;
+			this.folder = new File(root, name);
+			this.project = fake(IProject.class, new ProjectHandler(this));
+		}
+
+	}
+
+	/**
+	 * Reflective fake of an eclipse interface; unexpected calls fail.
+	 */
+	static abstract class Handler implements InvocationHandler {
+
+		final String label;
+
+		Handler(final String label) {
+			this.label = label;
+		}
+
+		@Override
+		public Object invoke(final Object proxy, final Method method,
+				final Object[] args) throws Throwable {
+			final String name = method.getName();
+			if (name.equals("equals")) {
+				return proxy == args[0];
+			}
+			if (name.equals("hashCode")) {
+				return System.identityHashCode(proxy);
+			}
+			if (name.equals("toString")) {
+				return label;
+			}
+			return answer(proxy, name, args == null ? new Object[0] : args);
+		}
+
+		abstract Object answer(Object proxy, String name, Object[] args)
+				throws Throwable;
+
+		Object unknown(final String name) {
+			throw new UnsupportedOperationException(label + "#" + name);
+		}
+
+	}
+
+	class ProjectHandler extends Handler {
+
+		final Fake fake;
+
+		ProjectHandler(final Fake fake) {
+			super("P/" + fake.name);
+			this.fake = fake;
+		}
+
+		@Override
+		Object answer(final Object proxy, final String name,
+				final Object[] args) {
+			if (name.equals("getName")) {
+				return fake.name;
+			}
+			if (name.equals("exists")) {
+				return fake.isPresent;
+			}
+			if (name.equals("isOpen")) {
+				return fake.isPresent && fake.isOpen;
+			}
+			if (name.equals("hasNature")) {
+				return fake.natureList.contains(args[0]);
+			}
+			if (name.equals("getFile")) {
+				return member(IFile.class, fake, path(args[0]));
+			}
+			if (name.equals("getFolder")) {
+				return member(IFolder.class, fake, path(args[0]));
+			}
+			if (name.equals("getLocation")) {
+				return new Path(fake.folder.getAbsolutePath());
+			}
+			if (name.equals("getFullPath")) {
+				return Path.ROOT.append(fake.name);
+			}
+			if (name.equals("getProjectRelativePath")) {
+				return Path.EMPTY;
+			}
+			if (name.equals("getProject")) {
+				return proxy;
+			}
+			if (name.equals("getType")) {
+				return IResource.PROJECT;
+			}
+			if (name.equals("getWorkspace")) {
+				return workspace;
+			}
+			if (name.equals("getModificationStamp")) {
+				return stamp.get();
+			}
+			if (name.equals("getAdapter") && args[0] == IJavaProject.class) {
+				return java(fake.name);
+			}
+			if (name.equals("findMarkers")) {
+				final List<IMarker> list = new ArrayList<IMarker>();
+				for (final Map.Entry<Long, Integer> entry : fake.markerMap
+						.entrySet()) {
+					list.add(marker(fake, entry.getKey(), entry.getValue()));
+				}
+				return list.toArray(new IMarker[list.size()]);
+			}
+			if (name.equals("findMaxProblemSeverity")) {
+				int severity = -1;
+				for (final Integer value : fake.markerMap.values()) {
+					severity = Math.max(severity, value);
+				}
+				return severity;
+			}
+			return unknown(name);
+		}
+
+	}
+
+	/**
+	 * File or folder inside a project.
+	 */
+	<T> T member(final Class<T> klaz, final Fake fake, final IPath path) {
+		final File file = new File(fake.folder, path.toString());
+		return fake(klaz, new Handler("L/" + fake.name + "/" + path) {
+			@Override
+			Object answer(final Object proxy, final String name,
+					final Object[] args) throws Throwable {
+				if (name.equals("getName")) {
+					return path.lastSegment();
+				}
+				if (name.equals("exists")) {
+					return file.exists();
+				}
+				if (name.equals("getLocation")) {
+					return new Path(file.getAbsolutePath());
+				}
+				if (name.equals("getFullPath")) {
+					return Path.ROOT.append(fake.name).append(path);
+				}
+				if (name.equals("getProjectRelativePath")) {
+					return path;
+				}
+				if (name.equals("getProject")) {
+					return fake.project;
+				}
+				if (name.equals("getWorkspace")) {
+					return workspace;
+				}
+				if (name.equals("getModificationStamp")) {
+					return file.exists() ? file.lastModified()
+							: IResource.NULL_STAMP;
+				}
+				if (name.equals("getType")) {
+					return klaz == IFolder.class ? IResource.FOLDER
+							: IResource.FILE;
+				}
+				return unknown(name);
+			}
+		});
+	}
+
+	/**
+	 * Problem marker of a project.
+	 */
+	IMarker marker(final Fake fake, final long id, final int severity) {
+		return fake(IMarker.class, new Handler("M/" + fake.name + "/" + id) {
+			@Override
+			Object answer(final Object proxy, final String name,
+					final Object[] args) {
+				if (name.equals("getId")) {
+					return id;
+				}
+				if (name.equals("exists")) {
+					return true;
+				}
+				if (name.equals("getType")) {
+					return IMarker.PROBLEM;
+				}
+				if (name.equals("getResource")) {
+					return fake.project;
+				}
+				if (name.equals("getAttribute") && args.length == 2) {
+					return IMarker.SEVERITY.equals(args[0]) ? severity
+							: args[1];
+				}
+				return unknown(name);
+			}
+		});
+	}
+
+	/**
+	 * Problem marker change of a project.
+	 */
+	IMarkerDelta markerDelta(final Fake fake, final long id,
+			final int severity, final int kind) {
+		final IMarker marker = marker(fake, id, severity);
+		return fake(IMarkerDelta.class, new Handler("D/" + marker) {
+			@Override
+			Object answer(final Object proxy, final String name,
+					final Object[] args) {
+				if (name.equals("getId")) {
+					return id;
+				}
+				if (name.equals("getKind")) {
+					return kind;
+				}
+				if (name.equals("getMarker")) {
+					return marker;
+				}
+				if (name.equals("getResource")) {
+					return fake.project;
+				}
+				if (name.equals("getType")) {
+					return IMarker.PROBLEM;
+				}
+				if (name.equals("isSubtypeOf")) {
+					return IMarker.PROBLEM.equals(args[0]);
+				}
+				if (name.equals("getAttribute") && args.length == 2) {
+					return IMarker.SEVERITY.equals(args[0]) ? severity
+							: args[1];
+				}
+				return unknown(name);
+			}
+		});
+	}
+
+	/**
+	 * Resource delta with affected children and marker changes.
+	 */
+	IResourceDelta delta(final IResource resource, final int kind,
+			final int flags, final IResourceDelta[] childArray,
+			final IMarkerDelta[] markerArray) {
+		return fake(IResourceDelta.class, new Handler("R/" + resource) {
+			@Override
+			Object answer(final Object proxy, final String name,
+					final Object[] args) throws Throwable {
+				if (name.equals("getResource")) {
+					return resource;
+				}
+				if (name.equals("getKind")) {
+					return kind;
+				}
+				if (name.equals("getFlags")) {
+					return flags;
+				}
+				if (name.equals("getAffectedChildren")) {
+					return childArray;
+				}
+				if (name.equals("getMarkerDeltas")) {
+					return markerArray;
+				}
+				if (name.equals("getFullPath")) {
+					return resource.getFullPath();
+				}
+				if (name.equals("findMember")) {
+					return findMember((IResourceDelta) proxy, (IPath) args[0]);
+				}
+				if (name.equals("accept")) {
+					accept((IResourceDelta) proxy,
+							(IResourceDeltaVisitor) args[0]);
+					return null;
+				}
+				return unknown(name);
+			}
+		});
+	}
+
+	static IResourceDelta findMember(final IResourceDelta delta,
+			final IPath path) {
+		if (path.segmentCount() == 0) {
+			return delta;
+		}
+		for (final IResourceDelta child : delta.getAffectedChildren()) {
+			if (child.getResource().getName().equals(path.segment(0))) {
+				return findMember(child, path.removeFirstSegments(1));
+			}
+		}
+		return null;
+	}
+
+	static void accept(final IResourceDelta delta,
+			final IResourceDeltaVisitor visitor) throws Exception {
+		if (visitor.visit(delta)) {
+			for (final IResourceDelta child : delta.getAffectedChildren()) {
+				accept(child, visitor);
+			}
+		}
+	}
+
+	static void collect(final IResourceDelta delta,
+			final List<IMarkerDelta> list) {
+		for (final IMarkerDelta marker : delta.getMarkerDeltas()) {
+			list.add(marker);
+		}
+		for (final IResourceDelta child : delta.getAffectedChildren()) {
+			collect(child, list);
+		}
+	}
+
+	/**
+	 * Resource change event, with delta or with resource.
+	 */
+	IResourceChangeEvent event(final int type, final IResource resource,
+			final IResourceDelta delta) {
+		return fake(IResourceChangeEvent.class, new Handler("E/" + type) {
+			@Override
+			Object answer(final Object proxy, final String name,
+					final Object[] args) {
+				if (name.equals("getType")) {
+					return type;
+				}
+				if (name.equals("getResource")) {
+					return resource;
+				}
+				if (name.equals("getDelta")) {
+					return delta;
+				}
+				if (name.equals("getSource")) {
+					return workspace;
+				}
+				if (name.equals("findMarkerDeltas")) {
+					final List<IMarkerDelta> //
+					list = new ArrayList<IMarkerDelta>();
+					if (delta != null) {
+						collect(delta, list);
+					}
+					return list.toArray(new IMarkerDelta[list.size()]);
+				}
+				return unknown(name);
+			}
+		});
+	}
+
+	@SuppressWarnings("unchecked")
+	static <T> T fake(final Class<T> klaz, final InvocationHandler handler) {
+		return (T) Proxy.newProxyInstance(klaz.getClassLoader(),
+				new Class<?>[] { klaz }, handler);
+	}
+
+	static IPath path(final Object path) {
+		return (path instanceof IPath ? (IPath) path : new Path(
+				path.toString())).makeRelative();
+	}
+
+	static void delete(final File file) {
+		final File[] fileArray = file.listFiles();
+		if (fileArray != null) {
+			for (final File child : fileArray) {
+				delete(child);
+			}
+		}
+		file.delete();
+	}
+
+	/**
+	 * Wait for condition up to time budget.
+	 *
+	 * @return true if condition was met within budget
+	 */
+	public static boolean await(final long budget,
+			final Callable<Boolean> condition) throws Exception {
+		final long timeLimit = System.currentTimeMillis() + budget;
+		while (!condition.call()) {
+			if (System.currentTimeMillis() > timeLimit) {
+				return false;
+			}
+			Thread.sleep(10);
+		}
+		return true;
+	}
+
+	final File root;
+
+	final AtomicLong stamp = new AtomicLong(1);
+
+	final AtomicLong markerId = new AtomicLong();
+
+	final ConcurrentMap<String, Fake> //
+	projectMap = new ConcurrentHashMap<String, Fake>();
+
+	final List<IResourceChangeListener> //
+	listenerList = new CopyOnWriteArrayList<IResourceChangeListener>();
+
+	final IWorkspaceRoot workspaceRoot = fake(IWorkspaceRoot.class,
+			new Handler("R/") {
+				@Override
+				Object answer(final Object proxy, final String name,
+						final Object[] args) {
+					if (name.equals("getProject")) {
+						return fake((String) args[0]).project;
+					}
+					if (name.equals("getProjects")) {
+						final List<IProject> list = new ArrayList<IProject>();
+						for (final Fake fake : projectMap.values()) {
+							if (fake.isPresent) {
+								list.add(fake.project);
+							}
+						}
+						return list.toArray(new IProject[list.size()]);
+					}
+					if (name.equals("getLocation")) {
+						return new Path(root.getAbsolutePath());
+					}
+					if (name.equals("getFullPath")) {
+						return Path.ROOT;
+					}
+					if (name.equals("getName")) {
+						return "";
+					}
+					if (name.equals("getType")) {
+						return IResource.ROOT;
+					}
+					if (name.equals("getWorkspace")) {
+						return workspace;
+					}
+					return unknown(name);
+				}
+			});
+
+	final IWorkspace workspace = fake(IWorkspace.class, new Handler("W/") {
+		@Override
+		Object answer(final Object proxy, final String name,
+				final Object[] args) {
+			if (name.equals("getRoot")) {
+				return workspaceRoot;
+			}
+			if (name.equals("addResourceChangeListener")) {
+				listenerList.add((IResourceChangeListener) args[0]);
+				return null;
+			}
+			if (name.equals("removeResourceChangeListener")) {
+				listenerList.remove(args[0]);
+				return null;
+			}
+			if (name.equals("addSaveParticipant")) {
+				/** No saved state from previous session. */
+				return null;
+			}
+			if (name.equals("removeSaveParticipant")) {
+				return null;
+			}
+			return unknown(name);
+		}
+	});
+
+	/**
+	 * Launch configurations by launched project name.
+	 */
+	final ConcurrentMap<String, ILaunchConfiguration> //
+	configMap = new ConcurrentHashMap<String, ILaunchConfiguration>();
+
+	/**
+	 * Running launches by launched project name.
+	 */
+	final ConcurrentMap<String, ILaunch> //
+	launchMap = new ConcurrentHashMap<String, ILaunch>();
+
+	final List<ILaunchesListener2> //
+	launchListenerList = new CopyOnWriteArrayList<ILaunchesListener2>();
+
+	final List<ILaunchConfigurationListener> configListenerList = //
+	new CopyOnWriteArrayList<ILaunchConfigurationListener>();
+
+	final ILaunchManager launchManager = fake(ILaunchManager.class,
+			new Handler("launch manager") {
+				@Override
+				Object answer(final Object proxy, final String name,
+						final Object[] args) {
+					if (name.equals("getLaunches")) {
+						return launchMap.values().toArray(new ILaunch[0]);
+					}
+					if (name.equals("getLaunchConfigurations")
+							&& args.length == 0) {
+						return configMap.values().toArray(
+								new ILaunchConfiguration[0]);
+					}
+					if (name.equals("addLaunchListener")) {
+						launchListenerList.add((ILaunchesListener2) args[0]);
+						return null;
+					}
+					if (name.equals("removeLaunchListener")) {
+						launchListenerList.remove(args[0]);
+						return null;
+					}
+					if (name.equals("addLaunchConfigurationListener")) {
+						configListenerList
+								.add((ILaunchConfigurationListener) args[0]);
+						return null;
+					}
+					if (name.equals("removeLaunchConfigurationListener")) {
+						configListenerList.remove(args[0]);
+						return null;
+					}
+					return unknown(name);
+				}
+			});
+
+	/**
+	 * Launch configuration attribute with the launched project name.
+	 */
+	static final String LAUNCH_PROJECT = //
+	"org.eclipse.jdt.launching.PROJECT_ATTR";
+
+	private Manager manager;
+
+	public WorkspaceHarness() throws Exception {
+		root = File.createTempFile("workspace-", "");
+		root.delete();
+		root.mkdirs();
+	}
+
+	Fake fake(final String name) {
+		final Fake fake = projectMap.get(name);
+		if (fake != null) {
+			return fake;
+		}
+		projectMap.putIfAbsent(name, new Fake(name));
+		return projectMap.get(name);
+	}
+
+	/**
+	 * Create open master project with workers and quiet period.
+	 */
+	public IProject master(final String name, final long quietPeriod,
+			final String... workerArray) throws Exception {
+		final Fake fake = fake(name);
+		fake.natureList.add(Nature.NATURE_ID);
+		final StringBuilder text = new StringBuilder();
+		text.append("eclipse {\n");
+		text.append("  list = [\n");
+		for (final String worker : workerArray) {
+			text.append("    " + worker + "\n");
+		}
+		text.append("  ]\n");
+		text.append("  quiet-period = " + quietPeriod + "\n");
+		text.append("}\n");
+		fake.isPresent = true;
+		conf(name, text.toString());
+		fake.isOpen = true;
+		return fake.project;
+	}
+
+	/**
+	 * Replace master configuration file content.
+	 */
+	public void conf(final String master, final String text) throws Exception {
+		FileUtil.publishTextFile(new File(fake(master).folder, Conf.PROJ_FILE),
+				text);
+	}
+
+	/**
+	 * Create open maven worker project with a manifest.
+	 */
+	public IProject worker(final String name) throws Exception {
+		final Fake fake = fake(name);
+		fake.natureList.add(JavaCore.NATURE_ID);
+		fake.isPresent = true;
+		fake.isOpen = true;
+		FileUtil.publishTextFile(new File(fake.folder,
+				ProjectUtil.CLASSPATH_FILE), "<classpath>\n"
+				+ "<classpathentry kind=\"output\" path=\""
+				+ ProjectUtil.OUTPUT_MAVEN + "\"/>\n" + "</classpath>\n");
+		final IPath path = ProjectUtil.manifestPath(fake.project);
+		FileUtil.publishTextFile(new File(fake.folder, path.toString()),
+				"Manifest-Version: 1.0\n");
+		return fake.project;
+	}
+
+	/**
+	 * Worker fileinstall.cfg written by a master.
+	 */
+	public File cfg(final String master, final String worker) {
+		return new File(fake(master).folder, "target/@etc/"
+				+ "org.apache.felix.fileinstall-" + worker + ".cfg");
+	}
+
+	/**
+	 * Worker bundle jar published by a master.
+	 */
+	public File bundle(final String master, final String worker) {
+		return new File(fake(master).folder, "target/@bundle/" + worker
+				+ ".jar");
+	}
+
+	/**
+	 * Start manager on simulated workspace.
+	 */
+	public Manager start() {
+		manager = new Manager(workspace, launchManager, root);
+		manager.start();
+		return manager;
+	}
+
+	/**
+	 * Stop manager, remove simulated workspace.
+	 */
+	public void stop() throws Exception {
+		if (manager != null) {
+			manager.stop();
+			manager = null;
+		}
+		await(1000, new Callable<Boolean>() {
+			@Override
+			public Boolean call() {
+				return Job.getJobManager().isIdle();
+			}
+		});
+		delete(root);
+	}
+
+	IJavaProject java(final String name) {
+		final IProject project = fake(name).project;
+		return fake(IJavaProject.class, new Handler("J/" + name) {
+			@Override
+			Object answer(final Object proxy, final String name,
+					final Object[] args) {
+				if (name.equals("getProject")) {
+					return project;
+				}
+				if (name.equals("getOutputLocation")) {
+					return project.getFullPath().append(
+							ProjectUtil.OUTPUT_MAVEN);
+				}
+				return unknown(name);
+			}
+		});
+	}
+
+	/**
+	 * Report worker build start, as the builder does.
+	 */
+	public void buildStart(final String worker) {
+		manager.builderAboutToBuild(java(worker));
+	}
+
+	/**
+	 * Report worker build finish, as the builder does.
+	 */
+	public void buildFinish(final String worker) {
+		manager.builderBuildFinished(java(worker));
+	}
+
+	/**
+	 * Add problem marker to project, then report marker delta.
+	 *
+	 * @return marker id
+	 */
+	public long markerAdd(final String name, final int severity) {
+		final Fake fake = fake(name);
+		final long id = markerId.incrementAndGet();
+		fake.markerMap.put(id, severity);
+		stamp.incrementAndGet();
+		fire(fake, markerDelta(fake, id, severity, IResourceDelta.ADDED));
+		return id;
+	}
+
+	/**
+	 * Remove problem marker from project, then report marker delta.
+	 */
+	public void markerRemove(final String name, final long id) {
+		final Fake fake = fake(name);
+		final Integer severity = fake.markerMap.remove(id);
+		stamp.incrementAndGet();
+		fire(fake, markerDelta(fake, id, severity, IResourceDelta.REMOVED));
+	}
+
+	void fire(final Fake fake, final IMarkerDelta marker) {
+		final IResourceDelta project = delta(fake.project,
+				IResourceDelta.CHANGED, IResourceDelta.MARKERS,
+				new IResourceDelta[0], new IMarkerDelta[] { marker });
+		fire(IResourceChangeEvent.POST_CHANGE, null, project);
+	}
+
+	/**
+	 * Create launch configuration of project, as the launch manager does.
+	 */
+	public void launchConfig(final String name) {
+		final ILaunchConfiguration config = fake(ILaunchConfiguration.class,
+				new Handler("C/" + name) {
+					@Override
+					Object answer(final Object proxy, final String method,
+							final Object[] args) {
+						if (method.equals("getAttribute")
+								&& LAUNCH_PROJECT.equals(args[0])) {
+							return name;
+						}
+						if (method.equals("getMappedResources")) {
+							return null;
+						}
+						return unknown(method);
+					}
+				});
+		configMap.put(name, config);
+		for (final ILaunchConfigurationListener listener : configListenerList) {
+			listener.launchConfigurationAdded(config);
+		}
+	}
+
+	/**
+	 * Delete launch configuration of project, as the launch manager does.
+	 */
+	public void launchConfigRemove(final String name) {
+		final ILaunchConfiguration config = configMap.remove(name);
+		for (final ILaunchConfigurationListener listener : configListenerList) {
+			listener.launchConfigurationRemoved(config);
+		}
+	}
+
+	/**
+	 * Run launch configuration of project, as the launch manager does.
+	 */
+	public void launchStart(final String name) {
+		final ILaunchConfiguration config = configMap.get(name);
+		final ILaunch launch = fake(ILaunch.class, new Handler("L/" + name) {
+			@Override
+			Object answer(final Object proxy, final String method,
+					final Object[] args) {
+				if (method.equals("isTerminated")) {
+					return false;
+				}
+				if (method.equals("getLaunchConfiguration")) {
+					return config;
+				}
+				return unknown(method);
+			}
+		});
+		launchMap.put(name, launch);
+		for (final ILaunchesListener2 listener : launchListenerList) {
+			listener.launchesAdded(new ILaunch[] { launch });
+		}
+	}
+
+	/**
+	 * Close project, as the workspace does.
+	 */
+	public void close(final String name) {
+		final Fake fake = fake(name);
+		fire(IResourceChangeEvent.PRE_CLOSE, fake.project, null);
+		fake.isOpen = false;
+	}
+
+	/**
+	 * Write worker build output file, then report its delta.
+	 */
+	public void output(final String name, final String entry,
+			final String text) throws Exception {
+		final Fake fake = fake(name);
+		final IPath root = ProjectUtil.outputPath(fake.project);
+		final IPath path = root.append(entry);
+		final File file = new File(fake.folder, path.toString());
+		final boolean isAdded = !file.exists();
+		FileUtil.publishTextFile(file, text);
+		IResourceDelta delta = delta(member(IFile.class, fake, path),
+				isAdded ? IResourceDelta.ADDED : IResourceDelta.CHANGED,
+				IResourceDelta.CONTENT, new IResourceDelta[0],
+				new IMarkerDelta[0]);
+		for (IPath folder = path.removeLastSegments(1); folder
+				.segmentCount() > 0; folder = folder.removeLastSegments(1)) {
+			delta = delta(member(IFolder.class, fake, folder),
+					IResourceDelta.CHANGED, 0, new IResourceDelta[] { delta },
+					new IMarkerDelta[0]);
+		}
+		final IResourceDelta project = delta(fake.project,
+				IResourceDelta.CHANGED, 0, new IResourceDelta[] { delta },
+				new IMarkerDelta[0]);
+		fire(IResourceChangeEvent.POST_CHANGE, null, project);
+	}
+
+	/**
+	 * Open project, as the workspace does.
+	 */
+	public void open(final String name) {
+		final Fake fake = fake(name);
+		fake.isOpen = true;
+		final IResourceDelta project = delta(fake.project,
+				IResourceDelta.CHANGED, IResourceDelta.OPEN,
+				new IResourceDelta[0], new IMarkerDelta[0]);
+		fire(IResourceChangeEvent.POST_CHANGE, null, project);
+	}
+
+	void fire(final int type, final IResource resource,
+			final IResourceDelta project) {
+		final IResourceDelta delta = project == null ? null : delta(
+				workspaceRoot, IResourceDelta.CHANGED, 0,
+				new IResourceDelta[] { project }, new IMarkerDelta[0]);
+		final IResourceChangeEvent event = event(type, resource, delta);
+		for (final IResourceChangeListener listener : listenerList) {
+			listener.resourceChanged(event);
+		}
+	}
+
+}
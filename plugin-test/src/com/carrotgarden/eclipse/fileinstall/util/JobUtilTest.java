@@ -0,0 +1,98 @@
+/**
+ * Copyright (C) 2010-2013 Andrei Pozolotin <Andrei.Pozolotin@gmail.com>
+ *
+ * All rights reserved. Licensed under the OSI BSD License.
+ *
+ * http://www.opensource.org/licenses/bsd-license.php
+ */
+package com.carrotgarden.eclipse.fileinstall.util;
+
+import static org.junit.Assert.*;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.eclipse.core.runtime.IProgressMonitor;
+import org.eclipse.core.runtime.IStatus;
+import org.eclipse.core.runtime.Status;
+import org.eclipse.core.runtime.jobs.Job;
+import org.junit.Test;
+
+public class JobUtilTest {
+
+	/**
+	 * Job which counts its runs and can be held inside a run.
+	 */
+	static class CountJob extends Job {
+
+		final AtomicInteger count = new AtomicInteger();
+
+		final CountDownLatch started = new CountDownLatch(1);
+
+		volatile CountDownLatch release = new CountDownLatch(0);
+
+		CountJob() {
+			super("count job");
+		}
+
+		@Override
+		protected IStatus run(final IProgressMonitor monitor) {
+			count.incrementAndGet();
+			started.countDown();
+			try {
+				release.await(5, TimeUnit.SECONDS);
+			} catch (final InterruptedException e) {
+				Thread.currentThread().interrupt();
+			}
+			return Status.OK_STATUS;
+		}
+
+	}
+
+	@Test
+	public void rescheduleWithinQuietPeriod() throws Exception {
+
+		final CountJob job = new CountJob();
+		JobUtil.prepare(job, JobUtil.lightRule("quiet period"));
+
+		JobUtil.reschedule(job, 300);
+		Thread.sleep(50);
+		assertEquals(Job.SLEEPING, job.getState());
+
+		/** Second event while sleeping must not fail and must postpone. */
+		JobUtil.reschedule(job, 300);
+		Thread.sleep(50);
+		assertEquals(Job.SLEEPING, job.getState());
+		assertEquals(0, job.count.get());
+
+		job.join();
+		assertEquals(1, job.count.get());
+
+	}
+
+	@Test
+	public void rescheduleWhileRunning() throws Exception {
+
+		final CountJob job = new CountJob();
+		job.release = new CountDownLatch(1);
+		JobUtil.prepare(job, JobUtil.lightRule("running"));
+
+		JobUtil.reschedule(job, 0);
+		assertTrue(job.started.await(5, TimeUnit.SECONDS));
+		assertEquals(Job.RUNNING, job.getState());
+
+		/** Event while running must not fail and must run once more. */
+		JobUtil.reschedule(job, 0);
+		job.release.countDown();
+
+		final long timeLimit = System.currentTimeMillis() + 5000;
+		while (job.count.get() < 2 && System.currentTimeMillis() < timeLimit) {
+			Thread.sleep(10);
+		}
+		job.join();
+		assertEquals(2, job.count.get());
+
+	}
+
+}
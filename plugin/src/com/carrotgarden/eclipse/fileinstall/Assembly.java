@@ -0,0 +1,454 @@
+/**
+ * Copyright (C) 2010-2013 Andrei Pozolotin <Andrei.Pozolotin@gmail.com>
+ *
+ * All rights reserved. Licensed under the OSI BSD License.
+ *
+ * http://www.opensource.org/licenses/bsd-license.php
+ */
+package com.carrotgarden.eclipse.fileinstall;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Set;
+import java.util.SortedMap;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.zip.CRC32;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipFile;
+import java.util.zip.ZipOutputStream;
+
+import org.eclipse.core.resources.IProject;
+import org.eclipse.core.resources.IResource;
+import org.eclipse.core.resources.IResourceDelta;
+import org.eclipse.core.resources.IResourceDeltaVisitor;
+import org.eclipse.core.runtime.CoreException;
+import org.eclipse.core.runtime.IPath;
+
+import com.carrotgarden.eclipse.fileinstall.util.FileUtil;
+import com.carrotgarden.eclipse.fileinstall.util.ProjectUtil;
+
+/**
+ * Worker bundle jar assembled by the plug-in from worker build output.
+ * <p>
+ * Keeps an index of output folder entries with their check sums; resource
+ * deltas mark changed entries, so after the first scan only changed entries
+ * are read again. Entries are stored without compression, so writing the
+ * jar is a plain copy.
+ * <p>
+ * A jar can not be updated in place, so each publish writes a whole new
+ * jar; entries unchanged since the previous publish are copied from the
+ * previously published jar, only changed entries are read from the output
+ * folder. Other masters of the same worker copy the jar published first.
+ * <p>
+ * Deltas are recorded without taking the assembly lock, so the resource
+ * notification thread never waits for a jar being written.
+ */
+public class Assembly implements FileUtil.Content {
+
+	/**
+	 * Indexed output folder entry.
+	 */
+	private static class Item {
+
+		final long modified;
+		final long length;
+		final long crc;
+
+		Item(final long modified, final long length, final long crc) {
+			this.modified = modified;
+			this.length = length;
+			this.crc = crc;
+		}
+
+		boolean isCurrent(final File file) {
+			return modified == file.lastModified() && length == file.length();
+		}
+
+		boolean isSame(final Item that) {
+			return that != null && length == that.length && crc == that.crc;
+		}
+
+	}
+
+	/**
+	 * Worker assemblies, by worker name.
+	 */
+	private static final ConcurrentMap<String, Assembly> //
+	ASSEMBLY_MAP = new ConcurrentHashMap<String, Assembly>();
+
+	private static final int BUFFER_SIZE = 64 * 1024;
+
+	/**
+	 * Worker assembly, created on demand.
+	 */
+	public static Assembly of(final IProject worker) {
+		final String name = worker.getName();
+		final Assembly past = ASSEMBLY_MAP.get(name);
+		if (past != null) {
+			return past;
+		}
+		final Assembly next = new Assembly(worker);
+		final Assembly race = ASSEMBLY_MAP.putIfAbsent(name, next);
+		return race == null ? next : race;
+	}
+
+	/**
+	 * Existing worker assembly, if any.
+	 */
+	public static Assembly find(final String name) {
+		return ASSEMBLY_MAP.get(name);
+	}
+
+	/**
+	 * Discard worker assembly.
+	 */
+	public static void remove(final String name) {
+		ASSEMBLY_MAP.remove(name);
+	}
+
+	/**
+	 * Discard all assemblies.
+	 */
+	public static void clear() {
+		ASSEMBLY_MAP.clear();
+	}
+
+	private final IProject project;
+
+	/**
+	 * Output folder entries, by jar entry name.
+	 */
+	private final SortedMap<String, Item> itemMap = new TreeMap<String, Item>();
+
+	/**
+	 * Entries reported by deltas since last refresh.
+	 */
+	private final Set<String> changeSet = Collections
+			.newSetFromMap(new ConcurrentHashMap<String, Boolean>());
+
+	/**
+	 * Deltas reported a change which needs a full scan.
+	 */
+	private final AtomicBoolean isStale = new AtomicBoolean();
+
+	/**
+	 * Output folder, relative to the project.
+	 */
+	private volatile IPath rootPath;
+
+	/**
+	 * Output folder location.
+	 */
+	private File root;
+
+	/**
+	 * Index matches output folder, apart from reported changes.
+	 */
+	private volatile boolean isScanned;
+
+	/**
+	 * Content generation, advanced on every content change.
+	 */
+	private long generation;
+
+	/**
+	 * Jar published last from the index, if any.
+	 */
+	private File lastJar;
+
+	/**
+	 * Entries changed since the last jar was published.
+	 */
+	private final Set<String> dirtySet = new HashSet<String>();
+
+	private final byte[] buffer = new byte[BUFFER_SIZE];
+
+	private final IResourceDeltaVisitor visitor = new IResourceDeltaVisitor() {
+		@Override
+		public boolean visit(final IResourceDelta delta) throws CoreException {
+			final IResource resource = delta.getResource();
+			switch (resource.getType()) {
+			case IResource.FILE:
+				changeSet.add(entryName(resource));
+				return false;
+			case IResource.FOLDER:
+				if (delta.getKind() == IResourceDelta.REMOVED) {
+					isStale.set(true);
+					return false;
+				}
+				return true;
+			default:
+				return true;
+			}
+		}
+	};
+
+	private Assembly(final IProject project) {
+		this.project = project;
+	}
+
+	/**
+	 * Jar entry name of output folder resource.
+	 */
+	private String entryName(final IResource resource) {
+		return resource.getProjectRelativePath().makeRelativeTo(rootPath)
+				.toPortableString();
+	}
+
+	/**
+	 * Record output folder changes from worker project delta.
+	 * 
+	 * @return true if output folder has changed since last refresh
+	 */
+	public boolean update(final IResourceDelta projectDelta) {
+		final IPath path = rootPath;
+		if (!isScanned || path == null) {
+			return false;
+		}
+		final IResourceDelta delta = projectDelta.findMember(path);
+		if (delta == null) {
+			return false;
+		}
+		try {
+			delta.accept(visitor);
+		} catch (final Throwable e) {
+			isStale.set(true);
+			Plugin.logErrr("Assembly#update: failure", e);
+		}
+		return true;
+	}
+
+	/**
+	 * Forget the index; next refresh scans output folder again.
+	 */
+	public void reset() {
+		isStale.set(true);
+	}
+
+	/**
+	 * Bring index in sync with output folder.
+	 *
+	 * @return content generation
+	 */
+	public synchronized long refresh() throws Exception {
+
+		final IPath path = ProjectUtil.outputPath(project);
+		if (!path.equals(rootPath)) {
+			rootPath = path;
+			root = project.getFolder(path).getLocation().toFile();
+			isScanned = false;
+		}
+
+		if (isStale.getAndSet(false)) {
+			isScanned = false;
+		}
+
+		if (!isScanned) {
+			changeSet.clear();
+			itemMap.clear();
+			dirtySet.clear();
+			lastJar = null;
+			scan(root, "");
+			isScanned = true;
+			return ++generation;
+		}
+
+		if (changeSet.isEmpty()) {
+			return generation;
+		}
+
+		boolean isChanged = false;
+		final Iterator<String> iterator = changeSet.iterator();
+		while (iterator.hasNext()) {
+			final String name = iterator.next();
+			iterator.remove();
+			final File file = new File(root, name);
+			if (file.isFile()) {
+				final Item past = itemMap.get(name);
+				final Item next = item(file);
+				itemMap.put(name, next);
+				if (!next.isSame(past)) {
+					dirtySet.add(name);
+					isChanged = true;
+				}
+			} else {
+				isChanged |= itemMap.remove(name) != null;
+			}
+		}
+
+		if (Plugin.isLogOK()) {
+			Plugin.logOK("Assembly#refresh: " + project.getName()
+					+ " changed=" + isChanged);
+		}
+
+		return isChanged ? ++generation : generation;
+
+	}
+
+	/**
+	 * Index output folder recursively.
+	 */
+	private void scan(final File folder, final String prefix)
+			throws Exception {
+		final File[] fileArray = folder.listFiles();
+		if (fileArray == null) {
+			return;
+		}
+		for (final File file : fileArray) {
+			final String name = prefix + file.getName();
+			if (file.isDirectory()) {
+				scan(file, name + "/");
+			} else {
+				itemMap.put(name, item(file));
+			}
+		}
+	}
+
+	/**
+	 * Read file and make its index entry.
+	 */
+	private Item item(final File file) throws Exception {
+		final long modified = file.lastModified();
+		final CRC32 crc = new CRC32();
+		long length = 0;
+		final InputStream input = new FileInputStream(file);
+		try {
+			int count;
+			while ((count = input.read(buffer)) > 0) {
+				crc.update(buffer, 0, count);
+				length += count;
+			}
+		} finally {
+			input.close();
+		}
+		return new Item(modified, length, crc.getValue());
+	}
+
+	/**
+	 * Publish bundle jar from the index into a file atomically.
+	 */
+	public synchronized void publish(final File file) throws Exception {
+		FileUtil.publish(file, this);
+		lastJar = file;
+		dirtySet.clear();
+	}
+
+	/**
+	 * Write bundle jar from the index; manifest goes first, as required by
+	 * jar readers.
+	 */
+	@Override
+	public synchronized void write(final OutputStream output)
+			throws Exception {
+		final ZipFile source = lastOpen();
+		try {
+			final ZipOutputStream zip = new ZipOutputStream(output);
+			zip.setMethod(ZipOutputStream.STORED);
+			final Set<String> folderSet = new HashSet<String>();
+			final String manifest = ProjectUtil.MANIFEST_PATH;
+			if (itemMap.containsKey(manifest)) {
+				writeEntry(zip, source, folderSet, manifest,
+						itemMap.get(manifest));
+			}
+			for (final Map.Entry<String, Item> entry : itemMap.entrySet()) {
+				if (!entry.getKey().equals(manifest)) {
+					writeEntry(zip, source, folderSet, entry.getKey(),
+							entry.getValue());
+				}
+			}
+			zip.finish();
+		} catch (final Exception e) {
+			isStale.set(true);
+			throw e;
+		} finally {
+			if (source != null) {
+				source.close();
+			}
+		}
+	}
+
+	/**
+	 * Open last published jar for entry copy; null when not available.
+	 */
+	private ZipFile lastOpen() {
+		final File file = lastJar;
+		if (file == null || !file.isFile()) {
+			return null;
+		}
+		try {
+			return new ZipFile(file);
+		} catch (final Throwable e) {
+			Plugin.logWarn("Assembly#lastOpen: " + file + ": " + e);
+			return null;
+		}
+	}
+
+	/**
+	 * Write stored entry, preceded by its missing folder entries; copy
+	 * unchanged entry from the last published jar.
+	 */
+	private void writeEntry(final ZipOutputStream zip, final ZipFile source,
+			final Set<String> folderSet, final String name, Item item)
+			throws Exception {
+
+		for (int index = name.indexOf('/'); index > 0; index = name.indexOf(
+				'/', index + 1)) {
+			final String folder = name.substring(0, index + 1);
+			if (folderSet.add(folder)) {
+				final ZipEntry entry = new ZipEntry(folder);
+				entry.setMethod(ZipEntry.STORED);
+				entry.setSize(0);
+				entry.setCompressedSize(0);
+				entry.setCrc(0);
+				zip.putNextEntry(entry);
+				zip.closeEntry();
+			}
+		}
+
+		final File file = new File(root, name);
+		final ZipEntry past;
+		if (item.isCurrent(file)) {
+			past = source == null || dirtySet.contains(name) ? null : source
+					.getEntry(name);
+		} else {
+			item = item(file);
+			itemMap.put(name, item);
+			dirtySet.add(name);
+			past = null;
+		}
+		final boolean isCopy = past != null && past.getCrc() == item.crc
+				&& past.getSize() == item.length;
+
+		final ZipEntry entry = new ZipEntry(name);
+		entry.setMethod(ZipEntry.STORED);
+		entry.setSize(item.length);
+		entry.setCompressedSize(item.length);
+		entry.setCrc(item.crc);
+		entry.setTime(item.modified);
+		zip.putNextEntry(entry);
+
+		final InputStream input = isCopy ? source.getInputStream(past)
+				: new FileInputStream(file);
+		try {
+			int count;
+			while ((count = input.read(buffer)) > 0) {
+				zip.write(buffer, 0, count);
+			}
+		} finally {
+			input.close();
+		}
+
+		zip.closeEntry();
+
+	}
+
+}
@@ -12,6 +12,9 @@ import org.eclipse.jdt.core.compiler.CompilationParticipant;
 
 /**
  * Java build listener.
+ * <p>
+ * Callbacks only hand events over to {@link Manager}, which processes them
+ * in a background job, so the build thread is not delayed.
  */
 public class Builder extends CompilationParticipant {
 
@@ -21,6 +24,7 @@ public class Builder extends CompilationParticipant {
 		if (instance == null) {
 			return READY_FOR_BUILD;
 		}
+		Metrics.instance().builderEvents.incrementAndGet();
 		/** Notify registered worker projects. */
 		instance.manager().builderAboutToBuild(project);
 		return READY_FOR_BUILD;
@@ -32,6 +36,7 @@ public class Builder extends CompilationParticipant {
 		if (instance == null) {
 			return;
 		}
+		Metrics.instance().builderEvents.incrementAndGet();
 		/** Notify registered worker projects. */
 		instance.manager().builderBuildFinished(project);
 	}
@@ -7,11 +7,15 @@
  */
 package com.carrotgarden.eclipse.fileinstall;
 
-import java.util.HashMap;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
 import java.util.List;
-import java.util.Map;
+import java.util.Locale;
+import java.util.Set;
 
 import com.carrotgarden.eclipse.fileinstall.util.ConfUtil;
+import com.carrotgarden.eclipse.fileinstall.util.Template;
 import com.typesafe.config.Config;
 
 /**
@@ -38,31 +42,85 @@ public class Conf {
 
 	}
 
-	private class CheckImpl implements Check {
+	/**
+	 * Immutable check snapshot.
+	 */
+	private static class CheckImpl implements Check {
+
+		private final boolean eclipseCheckIsMasterDeployPresent;
+		private final boolean eclipseCheckIsMasterLaunchRunning;
+		private final boolean eclipseCheckIsWorkerBuildSuccess;
+		private final boolean eclipseCheckIsWorkerManifestPresent;
+
+		CheckImpl(final Config config) {
+			eclipseCheckIsMasterDeployPresent = config
+					.getBoolean("eclipse.check.is-master-deploy-present");
+			eclipseCheckIsMasterLaunchRunning = config
+					.getBoolean("eclipse.check.is-master-launch-running");
+			eclipseCheckIsWorkerBuildSuccess = config
+					.getBoolean("eclipse.check.is-worker-build-success");
+			eclipseCheckIsWorkerManifestPresent = config
+					.getBoolean("eclipse.check.is-worker-manifest-present");
+		}
 
 		@Override
 		public boolean eclipseCheckIsMasterDeployPresent() {
-			return config.getBoolean("eclipse.check.is-master-deploy-present");
+			return eclipseCheckIsMasterDeployPresent;
 		}
 
 		@Override
 		public boolean eclipseCheckIsMasterLaunchRunning() {
-			return config.getBoolean("eclipse.check.is-master-launch-running");
+			return eclipseCheckIsMasterLaunchRunning;
 		}
 
 		@Override
 		public boolean eclipseCheckIsWorkerBuildSuccess() {
-			return config.getBoolean("eclipse.check.is-worker-build-success");
+			return eclipseCheckIsWorkerBuildSuccess;
 		}
 
 		@Override
 		public boolean eclipseCheckIsWorkerManifestPresent() {
-			return config
-					.getBoolean("eclipse.check.is-worker-manifest-present");
+			return eclipseCheckIsWorkerManifestPresent;
 		}
 
 	}
 
+	/**
+	 * Worker fileinstall.cfg handling during worker build.
+	 */
+	public enum Activation {
+		/** Remove at build start, create after successful build. */
+		RESET, //
+		/** Keep during build, remove only on negative check. */
+		HOLD, //
+		;
+
+		/**
+		 * Parse configuration value.
+		 */
+		public static Activation from(final String value) {
+			return valueOf(value.trim().toUpperCase(Locale.ENGLISH));
+		}
+	}
+
+	/**
+	 * Worker deploy artifact.
+	 */
+	public enum Deploy {
+		/** Fileinstall.cfg per worker; fileinstall assembles jardir bundle. */
+		JARDIR, //
+		/** Bundle jar per worker, assembled by the plug-in. */
+		BUNDLE, //
+		;
+
+		/**
+		 * Parse configuration value.
+		 */
+		public static Deploy from(final String value) {
+			return valueOf(value.trim().toUpperCase(Locale.ENGLISH));
+		}
+	}
+
 	/** Configuration file delivered on class path. */
 	public static final String KLAZ_FILE = "eclipse-fileinstall.conf";
 	/** Configuration file delivered on class path. */
@@ -81,42 +139,154 @@ public class Conf {
 	public static final String VAR_WORKSPACE = "@{eclipse-workspace}";
 
 	/**
-	 * Build variable substitution.
+	 * Template variables, in the order of {@link #values}.
 	 */
-	public static Map<String, String> variables(final String workspace,
-			final String name, final String path) {
-		final Map<String, String> map = new HashMap<String, String>();
-		map.put(VAR_WORKSPACE, workspace);
-		map.put(VAR_PROJECT_NAME, name);
-		map.put(VAR_PROJECT_PATH, path);
-		return map;
+	public static final String[] VAR_LIST = { VAR_WORKSPACE,
+			VAR_PROJECT_NAME, VAR_PROJECT_PATH };
+
+	/**
+	 * Template variable values, in the order of {@link #VAR_LIST}.
+	 */
+	public static String[] values(final String workspace, final String name,
+			final String path) {
+		return new String[] { workspace, name, path };
 	}
 
-	private final Check check = new CheckImpl();
+	private final Check check;
 
 	private final Config config;
 
+	private final List<String> eclipseList;
+
+	private final Set<String> eclipseSet;
+
+	private final Activation eclipseActivation;
+
+	private final Deploy eclipseDeploy;
+
+	private final Set<String> eclipseMarkers;
+
+	private final long eclipseQuietPeriod;
+
+	private final String fileinstallFile;
+
+	private final String fileinstallFolder;
+
+	private final String fileinstallTemplate;
+
+	private final Template fileinstallPathForm;
+
+	private final Template fileinstallTemplateForm;
+
+	private final String fileinstallBundleFile;
+
+	private final String fileinstallBundleFolder;
+
+	private final Template fileinstallBundlePathForm;
+
+	/**
+	 * Snapshot configuration once; instances are immutable.
+	 */
 	public Conf(final Config config) {
 		this.config = config;
+		this.check = new CheckImpl(config);
+		this.eclipseList = Collections.unmodifiableList(new ArrayList<String>(
+				config.getStringList("eclipse.list")));
+		this.eclipseSet = Collections.unmodifiableSet(new HashSet<String>(
+				eclipseList));
+		this.eclipseActivation = Activation.from(config
+				.getString("eclipse.activation"));
+		this.eclipseDeploy = Deploy.from(config.getString("eclipse.deploy"));
+		this.eclipseMarkers = Collections.unmodifiableSet(new HashSet<String>(
+				config.getStringList("eclipse.markers")));
+		this.eclipseQuietPeriod = config.getLong("eclipse.quiet-period");
+		this.fileinstallFile = config.getString("fileinstall.file");
+		this.fileinstallFolder = config.getString("fileinstall.folder");
+		this.fileinstallTemplate = ConfUtil.flatFile(config
+				.getConfig("fileinstall.template"));
+		this.fileinstallPathForm = Template.compile(fileinstallPath(),
+				VAR_LIST);
+		this.fileinstallTemplateForm = Template.compile(fileinstallTemplate,
+				VAR_LIST);
+		this.fileinstallBundleFile = config.getString("fileinstall.bundle-file");
+		this.fileinstallBundleFolder = config
+				.getString("fileinstall.bundle-folder");
+		this.fileinstallBundlePathForm = Template.compile(
+				fileinstallBundlePath(), VAR_LIST);
 	}
 
 	public Check check() {
 		return check;
 	}
 
+	/**
+	 * Source configuration of this snapshot.
+	 */
+	public Config config() {
+		return config;
+	}
+
+	/**
+	 * Verify if both configurations have the same checks.
+	 */
+	public boolean hasSameCheck(final Conf that) {
+		final Check one = this.check;
+		final Check two = that.check;
+		return one.eclipseCheckIsMasterDeployPresent() == two
+				.eclipseCheckIsMasterDeployPresent()
+				&& one.eclipseCheckIsMasterLaunchRunning() == two
+						.eclipseCheckIsMasterLaunchRunning()
+				&& one.eclipseCheckIsWorkerBuildSuccess() == two
+						.eclipseCheckIsWorkerBuildSuccess()
+				&& one.eclipseCheckIsWorkerManifestPresent() == two
+						.eclipseCheckIsWorkerManifestPresent();
+	}
+
 	/** # list of monitored dependency projects */
 	public List<String> eclipseList() {
-		return config.getStringList("eclipse.list");
+		return eclipseList;
+	}
+
+	/** # set of monitored dependency projects */
+	public Set<String> eclipseSet() {
+		return eclipseSet;
+	}
+
+	/** # worker fileinstall.cfg handling during worker build */
+	public Activation eclipseActivation() {
+		return eclipseActivation;
+	}
+
+	/** # worker deploy artifact */
+	public Deploy eclipseDeploy() {
+		return eclipseDeploy;
+	}
+
+	/** # problem marker types which count as worker build errors */
+	public Set<String> eclipseMarkers() {
+		return eclipseMarkers;
+	}
+
+	/** # quiet period to collect worker build events, millisecond */
+	public long eclipseQuietPeriod() {
+		return eclipseQuietPeriod;
+	}
+
+	/**
+	 * Verify if worker is monitored by this configuration.
+	 */
+	public boolean hasWorker(final String worker) {
+		return eclipseSet.contains(worker);
 	}
 
 	/** # configuration file name pattern */
 	public String fileinstallFile() {
-		return config.getString("fileinstall.file");
+		return fileinstallFile;
 	}
 
 	/** # configuration deploy folder */
 	public String fileinstallFolder() {
-		return config.getString("fileinstall.folder");
+		return fileinstallFolder;
 	}
 
 	public String fileinstallPath() {
@@ -125,7 +295,56 @@ public class Conf {
 
 	/** # prototype configuration */
 	public String fileinstallTemplate() {
-		return ConfUtil.flatFile(config.getConfig("fileinstall.template"));
+		return fileinstallTemplate;
+	}
+
+	/** # bundle jar file name pattern */
+	public String fileinstallBundleFile() {
+		return fileinstallBundleFile;
+	}
+
+	/** # bundle jar deploy folder */
+	public String fileinstallBundleFolder() {
+		return fileinstallBundleFolder;
+	}
+
+	public String fileinstallBundlePath() {
+		return fileinstallBundleFolder() + "/" + fileinstallBundleFile();
+	}
+
+	/**
+	 * Deploy folder of the active deploy mode.
+	 */
+	public String deployFolder() {
+		return eclipseDeploy == Deploy.BUNDLE ? fileinstallBundleFolder
+				: fileinstallFolder;
+	}
+
+	/**
+	 * Worker-specific bundle jar path.
+	 *
+	 * @see #values
+	 */
+	public String fileinstallBundlePath(final String[] values) {
+		return fileinstallBundlePathForm.render(values);
+	}
+
+	/**
+	 * Worker-specific configuration file path.
+	 *
+	 * @see #values
+	 */
+	public String fileinstallPath(final String[] values) {
+		return fileinstallPathForm.render(values);
+	}
+
+	/**
+	 * Worker-specific configuration file content.
+	 *
+	 * @see #values
+	 */
+	public String fileinstallTemplate(final String[] values) {
+		return fileinstallTemplateForm.render(values);
 	}
 
 }
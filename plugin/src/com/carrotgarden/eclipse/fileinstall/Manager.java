@@ -7,22 +7,55 @@
  */
 package com.carrotgarden.eclipse.fileinstall;
 
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Callable;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentMap;
-
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.eclipse.core.resources.IMarkerDelta;
 import org.eclipse.core.resources.IProject;
 import org.eclipse.core.resources.IResource;
 import org.eclipse.core.resources.IResourceChangeEvent;
 import org.eclipse.core.resources.IResourceChangeListener;
 import org.eclipse.core.resources.IResourceDelta;
 import org.eclipse.core.resources.IResourceDeltaVisitor;
+import org.eclipse.core.resources.ISaveContext;
+import org.eclipse.core.resources.ISaveParticipant;
+import org.eclipse.core.resources.ISavedState;
 import org.eclipse.core.resources.IWorkspace;
 import org.eclipse.core.resources.IWorkspaceRoot;
 import org.eclipse.core.resources.ResourcesPlugin;
 import org.eclipse.core.runtime.CoreException;
+import org.eclipse.core.runtime.IPath;
 import org.eclipse.core.runtime.IProgressMonitor;
+import org.eclipse.core.runtime.Path;
+import org.eclipse.core.runtime.jobs.ISchedulingRule;
+import org.eclipse.core.runtime.jobs.Job;
+import org.eclipse.core.runtime.jobs.MultiRule;
+import org.eclipse.debug.core.DebugPlugin;
+import org.eclipse.debug.core.ILaunch;
+import org.eclipse.debug.core.ILaunchConfiguration;
+import org.eclipse.debug.core.ILaunchConfigurationListener;
+import org.eclipse.debug.core.ILaunchManager;
+import org.eclipse.debug.core.ILaunchesListener2;
 import org.eclipse.jdt.core.IJavaProject;
+import org.osgi.framework.Bundle;
+import org.osgi.framework.FrameworkUtil;
 
 import com.carrotgarden.eclipse.fileinstall.Conf.Check;
 import com.carrotgarden.eclipse.fileinstall.Project.Change;
@@ -31,7 +64,7 @@ import com.carrotgarden.eclipse.fileinstall.util.EclipseRunnable;
 import com.carrotgarden.eclipse.fileinstall.util.EventUtil;
 import com.carrotgarden.eclipse.fileinstall.util.JobUtil;
 import com.carrotgarden.eclipse.fileinstall.util.NatureUtil;
-import com.carrotgarden.eclipse.fileinstall.util.ResourceUtil;
+import com.carrotgarden.eclipse.fileinstall.util.SerialExecutor;
 
 /**
  * Plug-in business logic.
@@ -64,10 +97,280 @@ public class Manager {
 			/** Handle project create/open. */
 			if (EventUtil.hasType(event, IResourceChangeEvent.POST_CHANGE)) {
 				EventUtil.accept(event, projectVisitor);
+				markerChange(event);
+				bundleChange(event);
+				deployChange(event);
+				return;
+			}
+
+		}
+	};
+
+	/**
+	 * Launch configuration attribute with the launched project name.
+	 */
+	private static final String LAUNCH_PROJECT = //
+	"org.eclipse.jdt.launching.PROJECT_ATTR";
+
+	/**
+	 * Names of masters with a running launch configuration.
+	 */
+	private volatile Set<String> launchSet = Collections.emptySet();
+
+	/**
+	 * Names of masters with a launch configuration, running or not.
+	 */
+	private volatile Set<String> configSet = Collections.emptySet();
+
+	/**
+	 * Launch change listener.
+	 */
+	private final ILaunchesListener2 launchListener = new ILaunchesListener2() {
+
+		@Override
+		public void launchesAdded(final ILaunch[] launches) {
+			launchChange();
+		}
+
+		@Override
+		public void launchesChanged(final ILaunch[] launches) {
+			launchChange();
+		}
+
+		@Override
+		public void launchesRemoved(final ILaunch[] launches) {
+			launchChange();
+		}
+
+		@Override
+		public void launchesTerminated(final ILaunch[] launches) {
+			launchChange();
+		}
+
+	};
+
+	/**
+	 * Launch configuration change listener.
+	 */
+	private final ILaunchConfigurationListener //
+	configListener = new ILaunchConfigurationListener() {
+
+		@Override
+		public void launchConfigurationAdded(final ILaunchConfiguration config) {
+			launchChange();
+		}
+
+		@Override
+		public void launchConfigurationChanged(
+				final ILaunchConfiguration config) {
+			launchChange();
+		}
+
+		@Override
+		public void launchConfigurationRemoved(
+				final ILaunchConfiguration config) {
+			launchChange();
+		}
+
+	};
+
+	/**
+	 * Update master launch state, flush held deployments of started masters
+	 * and of masters which lost their launch configuration.
+	 */
+	private void launchChange() {
+		synchronized (launchListener) {
+			final Set<String> nextLaunch = launchScan();
+			final Set<String> nextConfig = configScan();
+			if (nextLaunch.equals(launchSet) && nextConfig.equals(configSet)) {
 				return;
 			}
+			launchSet = nextLaunch;
+			configSet = nextConfig;
+			Plugin.logInfo("Manager#launchChange: running=" + nextLaunch
+					+ " configured=" + nextConfig);
+			for (final Project.Master master : masterMap.values()) {
+				launchUpdate(master);
+			}
+		}
+	}
+
+	/**
+	 * Pass current launch state to master.
+	 */
+	private void launchUpdate(final Project.Master master) {
+		final String name = master.name();
+		master.launchState(configSet.contains(name), launchSet.contains(name));
+	}
+
+	/**
+	 * Collect names of projects with a running launch configuration.
+	 */
+	private Set<String> launchScan() {
+		final Set<String> nameSet = new HashSet<String>();
+		for (final ILaunch launch : launchManager().getLaunches()) {
+			if (launch.isTerminated()) {
+				continue;
+			}
+			final ILaunchConfiguration config = launch
+					.getLaunchConfiguration();
+			if (config == null) {
+				continue;
+			}
+			configNames(config, nameSet);
+		}
+		return Collections.unmodifiableSet(nameSet);
+	}
+
+	/**
+	 * Collect names of projects with a launch configuration.
+	 */
+	private Set<String> configScan() {
+		final Set<String> nameSet = new HashSet<String>();
+		try {
+			for (final ILaunchConfiguration config : launchManager()
+					.getLaunchConfigurations()) {
+				configNames(config, nameSet);
+			}
+		} catch (final CoreException e) {
+			Plugin.logErrr("Manager#configScan: failure", e);
+		}
+		return Collections.unmodifiableSet(nameSet);
+	}
+
+	/**
+	 * Collect names of projects a launch configuration refers to.
+	 */
+	private static void configNames(final ILaunchConfiguration config,
+			final Set<String> nameSet) {
+		try {
+			final String name = config.getAttribute(LAUNCH_PROJECT, "");
+			if (name.length() > 0) {
+				nameSet.add(name);
+			}
+			final IResource[] resourceArray = config.getMappedResources();
+			if (resourceArray != null) {
+				for (final IResource resource : resourceArray) {
+					nameSet.add(resource.getProject().getName());
+				}
+			}
+		} catch (final CoreException e) {
+			Plugin.logErrr("Manager#configNames: failure", e);
+		}
+	}
+
+	/**
+	 * Regenerate deployments of masters with removed deploy folder.
+	 */
+	private void deployChange(final IResourceChangeEvent event) {
+		final IResourceDelta rootDelta = event.getDelta();
+		if (rootDelta == null) {
+			return;
+		}
+		for (final Project.Master master : masterMap.values()) {
+			final Conf conf = master.conf();
+			if (!conf.check().eclipseCheckIsMasterDeployPresent()) {
+				continue;
+			}
+			final IPath folder = master.project().getFullPath()
+					.append(conf.deployFolder());
+			if (isRemoved(rootDelta, folder)) {
+				handleDeploy(master);
+			}
+		}
+	}
+
+	/**
+	 * Verify if delta removes the folder or one of its parents inside the
+	 * project.
+	 */
+	private static boolean isRemoved(final IResourceDelta rootDelta,
+			final IPath folder) {
+		for (IPath path = folder; path.segmentCount() > 1; path = path
+				.removeLastSegments(1)) {
+			final IResourceDelta delta = rootDelta.findMember(path);
+			if (delta != null) {
+				return delta.getKind() == IResourceDelta.REMOVED;
+			}
+		}
+		return false;
+	}
+
+	/**
+	 * Feed worker output folder changes to assembled bundles, if any, and
+	 * publish them again for active workers: build output deltas arrive
+	 * after the build finish event, often after its batch already ran.
+	 */
+	private void bundleChange(final IResourceChangeEvent event) {
+		final IResourceDelta rootDelta = event.getDelta();
+		if (rootDelta == null) {
+			return;
+		}
+		for (final IResourceDelta delta : rootDelta.getAffectedChildren()) {
+			final String name = delta.getResource().getName();
+			final Assembly assembly = Assembly.find(name);
+			if (assembly == null || !assembly.update(delta)) {
+				continue;
+			}
+			final Project.Worker worker = workerMap.get(name);
+			if (worker != null && worker.isActive()) {
+				batchPublish(worker);
+			}
+		}
+	}
+
+	/**
+	 * Track worker error markers, verify workers with changed health in the
+	 * next batch.
+	 */
+	private void markerChange(final IResourceChangeEvent event) {
+		if (workerMap.isEmpty()) {
+			return;
+		}
+		final IMarkerDelta[] deltaArray = event.findMarkerDeltas(null, true);
+		if (deltaArray.length == 0) {
+			return;
+		}
+		for (final IMarkerDelta delta : deltaArray) {
+			final IProject project = delta.getResource().getProject();
+			if (project == null) {
+				continue;
+			}
+			final Project.Worker worker = workerMap.get(project.getName());
+			if (worker != null && worker.errorUpdate(delta)) {
+				batchPublish(worker);
+			}
+		}
+	}
+
+	/**
+	 * Persist snapshot on full workspace save, request delta for next
+	 * session.
+	 */
+	private final ISaveParticipant saveParticipant = new ISaveParticipant() {
+
+		@Override
+		public void doneSaving(final ISaveContext context) {
+		}
+
+		@Override
+		public void prepareToSave(final ISaveContext context)
+				throws CoreException {
+		}
 
+		@Override
+		public void rollback(final ISaveContext context) {
+		}
+
+		@Override
+		public void saving(final ISaveContext context) throws CoreException {
+			if (context.getKind() != ISaveContext.FULL_SAVE) {
+				return;
+			}
+			stateSave();
+			context.needDelta();
 		}
+
 	};
 
 	/**
@@ -97,6 +400,22 @@ public class Manager {
 						if (project.isOpen()) {
 							handleCreate(project);
 						}
+						return false;
+					}
+					/** Looking for worker manifest change. */
+					final Project.Worker worker = workerMap.get(project
+							.getName());
+					if (worker != null && worker.manifestUpdate(delta)) {
+						batchPublish(worker);
+					}
+					/** Looking for master configuration change. */
+					if (isConfChange(delta)) {
+						if (hasMaster(project)) {
+							handleReload(project);
+						} else if (NatureUtil.hasPluginNature(project)) {
+							/** Previously rejected configuration. */
+							handleCreate(project);
+						}
 					}
 					return false;
 				}
@@ -110,12 +429,148 @@ public class Manager {
 
 	};
 
+	/**
+	 * Total of master checks, maintained with the worker index.
+	 */
+	private final ConfUtil.CheckCount checkCount = new ConfUtil.CheckCount();
+
+	/**
+	 * Problem marker type usage count by masters.
+	 */
+	private final Map<String, Integer> markerCount = new HashMap<String, Integer>();
+
+	/**
+	 * Problem marker types which count as worker errors for any master.
+	 */
+	private volatile String[] markerTypes = new String[0];
+
+	/**
+	 * Reverse index: worker name to masters which depend on the worker.
+	 */
+	private final ConcurrentMap<String, Set<Project.Master>> //
+	workerIndex = new ConcurrentHashMap<String, Set<Project.Master>>();
+
+	/**
+	 * Quiet period for worker build events, maximum of all masters.
+	 */
+	private volatile long quietPeriod;
+
+	/**
+	 * Pending worker build events: worker name to final state, where true
+	 * means build finished and false means build started.
+	 */
+	private final ConcurrentMap<String, Boolean> //
+	batchMap = new ConcurrentHashMap<String, Boolean>();
+
+	/**
+	 * Maximum thread count for parallel worker verification at startup.
+	 */
+	private static final int STARTUP_POOL = 4;
+
+	/**
+	 * Maximum thread count for master fileinstall.cfg writers.
+	 */
+	private static final int WRITER_POOL = 4;
+
+	/**
+	 * Shared pool for master writers; each master writes in order, different
+	 * masters write concurrently.
+	 */
+	private final Executor writerPool = SerialExecutor.pool(
+			"fileinstall-writer", WRITER_POOL);
+
+	/**
+	 * Publish requests from masters, such as a retry of a bundle assembly
+	 * which failed on output changed while being copied.
+	 */
+	private final Project.Publisher publisher = new Project.Publisher() {
+		@Override
+		public void publish(final String workerName) {
+			final Project.Worker worker = workerMap.get(workerName);
+			if (worker != null && worker.isActive()) {
+				batchPublish(worker);
+			}
+		}
+	};
+
+	/**
+	 * Batch job rule: batches run one at a time, concurrent with builds.
+	 */
+	private final ISchedulingRule batchRule = JobUtil
+			.lightRule("Manager worker batch");
+
+	/**
+	 * Apply pending worker build events after quiet period.
+	 */
+	private final Job batchJob = JobUtil.prepare(new EclipseRunnable(
+			"Manager worker batch.") {
+		@Override
+		public void doit(final IProgressMonitor monitor) throws CoreException {
+			batchApply(monitor);
+		}
+	}.asJob(), batchRule);
+
 	/**
 	 * Worker projects: dependency for master projects.
 	 */
 	private final ConcurrentMap<String, Project.Worker> //
 	workerMap = new ConcurrentHashMap<String, Project.Worker>();
 
+	/**
+	 * Workspace to manage; null for the platform workspace.
+	 */
+	private final IWorkspace workspace;
+
+	/**
+	 * Launch manager to track; null for the platform launch manager.
+	 */
+	private final ILaunchManager launchManager;
+
+	/**
+	 * Snapshot folder; null for the plug-in state location.
+	 */
+	private final File stateFolder;
+
+	/**
+	 * Manage platform workspace.
+	 */
+	public Manager() {
+		this(null, null, null);
+	}
+
+	/**
+	 * Manage provided workspace, track provided launch manager and keep
+	 * snapshot in provided folder, such as simulated ones for headless runs.
+	 */
+	public Manager(final IWorkspace workspace,
+			final ILaunchManager launchManager, final File stateFolder) {
+		this.workspace = workspace;
+		this.launchManager = launchManager;
+		this.stateFolder = stateFolder;
+	}
+
+	/**
+	 * Managed workspace.
+	 */
+	private IWorkspace workspace() {
+		return workspace == null ? ResourcesPlugin.getWorkspace() : workspace;
+	}
+
+	/**
+	 * Tracked launch manager.
+	 */
+	private ILaunchManager launchManager() {
+		return launchManager == null ? DebugPlugin.getDefault()
+				.getLaunchManager() : launchManager;
+	}
+
+	/**
+	 * Project handle in managed workspace.
+	 */
+	private IProject project(final String name) {
+		return workspace().getRoot().getProject(name);
+	}
+
 	/**
 	 * Handle worker build start.
 	 * 
@@ -127,7 +582,8 @@ public class Manager {
 		if (worker == null) {
 			return;
 		}
-		doBuildInitiate(worker);
+		worker.generationNext();
+		batchEvent(worker, false);
 	}
 
 	/**
@@ -141,7 +597,8 @@ public class Manager {
 		if (worker == null) {
 			return;
 		}
-		doBuildTerminate(worker);
+		worker.generationNext();
+		batchEvent(worker, true);
 	}
 
 	/**
@@ -155,32 +612,166 @@ public class Manager {
 		if (worker == null) {
 			return;
 		}
+		final Assembly assembly = Assembly.find(name);
+		if (assembly != null) {
+			assembly.reset();
+		}
 	}
 
 	/**
-	 * Collect check poll from masters.
+	 * Apply final state of each pending worker in one batch.
 	 */
-	private Conf.Check check() {
+	private void batchApply(final IProgressMonitor monitor) {
 
-		final ConfUtil.CheckCount total = new ConfUtil.CheckCount();
+		final int size = batchMap.size();
 
-		for (final Project.Master master : masterMap.values()) {
-			final Check check = master.conf().check();
-			if (check.eclipseCheckIsMasterDeployPresent()) {
-				total.eclipseCheckIsMasterDeployPresent++;
+		monitor.beginTask("Manager#batchApply", size);
+		Plugin.logInfo("Manager#batchApply: size=" + size);
+
+		for (final String name : batchMap.keySet()) {
+			final Boolean isTerminate = batchMap.remove(name);
+			Metrics.instance().queueDepth.set(batchMap.size());
+			final Project.Worker worker = workerMap.get(name);
+			if (isTerminate == null || worker == null) {
+				continue;
 			}
-			if (check.eclipseCheckIsMasterLaunchRunning()) {
-				total.eclipseCheckIsMasterLaunchRunning++;
+			if (isTerminate) {
+				doBuildTerminate(worker);
+			} else {
+				doBuildInitiate(worker);
 			}
-			if (check.eclipseCheckIsWorkerBuildSuccess()) {
-				total.eclipseCheckIsWorkerBuildSuccess++;
+			monitor.worked(1);
+		}
+
+		monitor.done();
+
+	}
+
+	/**
+	 * Collect worker build event for the batch job; never blocks the build
+	 * thread. Pending events are bounded by the number of workers, since
+	 * only the last event per worker is kept.
+	 */
+	private void batchEvent(final Project.Worker worker,
+			final boolean isTerminate) {
+		final Metrics metrics = Metrics.instance();
+		metrics.workerEvents.incrementAndGet();
+		batchMap.put(worker.name(), isTerminate);
+		metrics.queueDepth.set(batchMap.size());
+		JobUtil.reschedule(batchJob, Math.max(0, quietPeriod));
+	}
+
+	/**
+	 * Collect worker verify and publish request for the batch job, unless a
+	 * build event is already pending for the worker: a pending build start
+	 * is followed by its own finish event.
+	 */
+	private void batchPublish(final Project.Worker worker) {
+		if (batchMap.putIfAbsent(worker.name(), true) != null) {
+			return;
+		}
+		Metrics.instance().queueDepth.set(batchMap.size());
+		JobUtil.reschedule(batchJob, Math.max(0, quietPeriod));
+	}
+
+	/**
+	 * Collect check poll from masters.
+	 */
+	private Conf.Check check() {
+		return checkCount;
+	}
+
+	/**
+	 * Register master in the worker index and the check total.
+	 */
+	private void indexCreate(final Project.Master master, final Conf conf) {
+		synchronized (workerIndex) {
+			for (final String workerName : conf.eclipseSet()) {
+				final Set<Project.Master> past = workerIndex.get(workerName);
+				final Set<Project.Master> next = past == null ? //
+				new HashSet<Project.Master>()
+						: new HashSet<Project.Master>(past);
+				next.add(master);
+				workerIndex.put(workerName, Collections.unmodifiableSet(next));
 			}
-			if (check.eclipseCheckIsWorkerManifestPresent()) {
-				total.eclipseCheckIsWorkerManifestPresent++;
+			checkCount.add(conf.check());
+			markerUpdate(conf.eclipseMarkers(), +1);
+			quietUpdate();
+		}
+	}
+
+	/**
+	 * Remove master from the worker index and the check total.
+	 */
+	private void indexDelete(final Project.Master master, final Conf conf) {
+		synchronized (workerIndex) {
+			for (final String workerName : conf.eclipseSet()) {
+				final Set<Project.Master> past = workerIndex.get(workerName);
+				if (past == null) {
+					continue;
+				}
+				final Set<Project.Master> next = new HashSet<Project.Master>(
+						past);
+				next.remove(master);
+				if (next.isEmpty()) {
+					workerIndex.remove(workerName);
+				} else {
+					workerIndex.put(workerName,
+							Collections.unmodifiableSet(next));
+				}
 			}
+			checkCount.remove(conf.check());
+			markerUpdate(conf.eclipseMarkers(), -1);
+			quietUpdate();
 		}
+	}
 
-		return total;
+	/**
+	 * Update quiet period from present masters.
+	 */
+	private void quietUpdate() {
+		long period = 0;
+		for (final Project.Master master : masterMap.values()) {
+			period = Math.max(period, master.conf().eclipseQuietPeriod());
+		}
+		quietPeriod = period;
+	}
+
+	/**
+	 * Update problem marker type usage, reset workers on type change.
+	 */
+	private void markerUpdate(final Set<String> typeSet, final int delta) {
+		for (final String type : typeSet) {
+			final Integer past = markerCount.get(type);
+			final int next = (past == null ? 0 : past) + delta;
+			if (next > 0) {
+				markerCount.put(type, next);
+			} else {
+				markerCount.remove(type);
+			}
+		}
+		final Set<String> pastSet = new HashSet<String>(
+				Arrays.asList(markerTypes));
+		if (pastSet.equals(markerCount.keySet())) {
+			return;
+		}
+		markerTypes = markerCount.keySet().toArray(
+				new String[markerCount.size()]);
+		for (final Project.Worker worker : workerMap.values()) {
+			worker.errorReset(markerTypes);
+		}
+		Plugin.logInfo("Manager#markerUpdate: " + markerCount.keySet());
+	}
+
+	/**
+	 * Masters which depend on a worker.
+	 */
+	private Set<Project.Master> masterSet(final String workerName) {
+		final Set<Project.Master> masterSet = workerIndex.get(workerName);
+		if (masterSet == null) {
+			return Collections.emptySet();
+		}
+		return masterSet;
 	}
 
 	/**
@@ -189,9 +780,24 @@ public class Manager {
 	private void doBuildInitiate(final Project.Worker worker) {
 
 		final String message = "Manager#doBuildInitiate: worker: " + worker;
-		Plugin.logOK(message);
+		if (Plugin.isLogOK()) {
+			Plugin.logOK(message);
+		}
 
-		workerDeactivate(worker.name());
+		final String workerName = worker.name();
+
+		int count = 0;
+		for (final Project.Master master : masterSet(workerName)) {
+			if (master.conf().eclipseActivation() == Conf.Activation.HOLD) {
+				continue;
+			}
+			master.confDelete(workerName);
+			count++;
+		}
+		if (Plugin.isLogOK()) {
+			Plugin.logOK("Manager#doBuildInitiate: reset " + count + " / "
+					+ workerName);
+		}
 
 	}
 
@@ -205,8 +811,60 @@ public class Manager {
 
 		final String name = worker.name();
 
-		worker.manifestChange();
-		worker.severityChange();
+		final Project.Health health = workerVerify(worker);
+		if (health == null) {
+			return;
+		}
+
+		int count = 0;
+		for (final Project.Master master : masterSet(name)) {
+			master.confApply(worker, health);
+			count++;
+		}
+		if (Plugin.isLogOK()) {
+			Plugin.logOK("Manager#doBuildTerminate: positive="
+					+ health.isPositive + " " + count + " / " + name);
+		}
+
+	}
+
+	/**
+	 * Evaluate worker checks for its current generation, report accepted
+	 * worker health.
+	 * 
+	 * @return null when the evaluation was superseded by a newer generation
+	 */
+	private Project.Health workerVerify(final Project.Worker worker) {
+		final long timeStart = System.nanoTime();
+		final long generation = worker.generation();
+		final boolean isManifestPresent = worker.manifestExists();
+		final boolean isBuildSuccess = worker.isErrorFree();
+		final boolean isPositive = workerVerifyCheck(worker,
+				isManifestPresent, isBuildSuccess);
+		final Metrics metrics = Metrics.instance();
+		metrics.verifyTime.record(System.nanoTime() - timeStart);
+		final Project.Health next = new Project.Health(generation,
+				isManifestPresent, isBuildSuccess, isPositive);
+		final Project.Health past = worker.healthCommit(next);
+		if (past == null) {
+			metrics.workerStale.incrementAndGet();
+			if (Plugin.isLogOK()) {
+				Plugin.logOK("Manager#workerVerify: stale generation: "
+						+ generation + " @ " + worker);
+			}
+			return null;
+		}
+		if (past.isPositive != null && past.isPositive != isPositive) {
+			metrics.workerFlaps.incrementAndGet();
+		}
+		return next;
+	}
+
+	/**
+	 * Evaluate the checks on sampled worker state.
+	 */
+	private boolean workerVerifyCheck(final Project.Worker worker,
+			final boolean isManifestPresent, final boolean isBuildSuccess) {
 
 		final Check check = check();
 
@@ -214,46 +872,55 @@ public class Manager {
 		int countNegative = 0;
 
 		if (check.eclipseCheckIsWorkerBuildSuccess()) {
-			if (worker.isBuildSuccess()) {
+			if (isBuildSuccess) {
 				countPositive++;
-				Plugin.logOK("Manager#doBuildTerminate: build success: "
-						+ worker);
+				if (Plugin.isLogOK()) {
+					Plugin.logOK("Manager#workerVerify: build success: "
+							+ worker);
+				}
 			} else {
-				Plugin.logOK("Manager#doBuildTerminate: build failure: "
-						+ worker);
+				if (Plugin.isLogOK()) {
+					Plugin.logOK("Manager#workerVerify: build failure: "
+							+ worker);
+				}
 				countNegative++;
 			}
 		}
 
 		if (check.eclipseCheckIsWorkerManifestPresent()) {
-			if (worker.isManifestPresent()) {
+			if (isManifestPresent) {
 				countPositive++;
-				Plugin.logOK("Manager#doBuildTerminate: manifest present: "
-						+ worker);
+				if (Plugin.isLogOK()) {
+					Plugin.logOK("Manager#workerVerify: manifest present: "
+							+ worker);
+				}
 			} else {
-				Plugin.logOK("Manager#doBuildTerminate: manifest missing: "
-						+ worker);
+				if (Plugin.isLogOK()) {
+					Plugin.logOK("Manager#workerVerify: manifest missing: "
+							+ worker);
+				}
 				countNegative++;
 			}
 		}
 
 		if (countPositive == 0 && countNegative == 0) {
-			Plugin.logOK("Manager#doBuildTerminate: change ignored: " + worker);
-			workerActivate(name);
-			return;
+			if (Plugin.isLogOK()) {
+				Plugin.logOK("Manager#workerVerify: change ignored: " + worker);
+			}
+			return true;
 		}
 
 		if (countNegative > 0) {
-			Plugin.logOK("Manager#doBuildTerminate: change negative: " + worker);
-			workerDeactivate(name);
-			return;
+			if (Plugin.isLogOK()) {
+				Plugin.logOK("Manager#workerVerify: change negative: " + worker);
+			}
+			return false;
 		}
 
-		if (countPositive > 0) {
-			Plugin.logOK("Manager#doBuildTerminate: change positive: " + worker);
-			workerActivate(name);
-			return;
+		if (Plugin.isLogOK()) {
+			Plugin.logOK("Manager#workerVerify: change positive: " + worker);
 		}
+		return true;
 
 	}
 
@@ -261,7 +928,8 @@ public class Manager {
 	 * Handle master/worker activate.
 	 */
 	public void handleCreate(final IProject project) {
-		JobUtil.schedule(new EclipseRunnable("Manager handle activate.") {
+		JobUtil.schedule(JobUtil.projectRule(project), new EclipseRunnable(
+				"Manager handle activate.") {
 			@Override
 			public void doit(final IProgressMonitor monitor)
 					throws CoreException {
@@ -283,11 +951,44 @@ public class Manager {
 		});
 	}
 
+	/**
+	 * Regenerate all worker deployments of a master in one pass.
+	 */
+	private void handleDeploy(final Project.Master master) {
+		JobUtil.schedule(JobUtil.projectRule(master.project()),
+				new EclipseRunnable("Manager handle deploy.") {
+					@Override
+					public void doit(final IProgressMonitor monitor)
+							throws CoreException {
+
+						final Conf conf = master.conf();
+						final List<String> list = conf.eclipseList();
+
+						final String message = "Manager#handleDeploy "
+								+ master;
+
+						monitor.beginTask(message, list.size());
+						Plugin.logInfo(message);
+
+						for (final String workerName : list) {
+							if (masterMap.get(master.name()) != master) {
+								break;
+							}
+							workerReload(master, conf, workerName);
+							monitor.worked(1);
+						}
+
+						monitor.done();
+					}
+				});
+	}
+
 	/**
 	 * Handle master/worker deactivate.
 	 */
 	public void handleDelete(final IProject project) {
-		JobUtil.schedule(new EclipseRunnable("Manager handle deactivate.") {
+		JobUtil.schedule(JobUtil.projectRule(project), new EclipseRunnable(
+				"Manager handle deactivate.") {
 			@Override
 			public void doit(final IProgressMonitor monitor)
 					throws CoreException {
@@ -308,6 +1009,57 @@ public class Manager {
 		});
 	}
 
+	/**
+	 * Handle master configuration file change.
+	 */
+	public void handleReload(final IProject project) {
+		JobUtil.schedule(JobUtil.projectRule(project), new EclipseRunnable(
+				"Manager handle reload.") {
+			@Override
+			public void doit(final IProgressMonitor monitor)
+					throws CoreException {
+
+				final String message = "Manager#handleReload " + project;
+
+				monitor.beginTask(message, 1);
+				Plugin.logInfo(message);
+
+				masterReload(project);
+				monitor.worked(1);
+
+				monitor.done();
+			}
+		});
+	}
+
+	/**
+	 * Reset the worker index and the check total.
+	 */
+	private void clearIndex() {
+		synchronized (workerIndex) {
+			workerIndex.clear();
+			checkCount.clear();
+			markerCount.clear();
+			markerTypes = new String[0];
+			quietPeriod = 0;
+		}
+	}
+
+	/**
+	 * Verify if project delta carries master configuration file change.
+	 */
+	private static boolean isConfChange(final IResourceDelta delta) {
+		final IResourceDelta conf = delta.findMember(new Path(Conf.PROJ_FILE));
+		if (conf == null) {
+			return false;
+		}
+		if (EventUtil.hasKind(conf, IResourceDelta.ADDED)) {
+			return true;
+		}
+		return EventUtil.hasFlag(conf, IResourceDelta.CONTENT
+				| IResourceDelta.REPLACED);
+	}
+
 	public boolean hasMaster(final IProject project) {
 		return masterMap.containsKey(project.getName());
 	}
@@ -320,13 +1072,7 @@ public class Manager {
 	 * Verify if worker is required by known master.
 	 */
 	private boolean isWorkerRequired(final String workerName) {
-		for (final Project.Master master : masterMap.values()) {
-			final List<String> eclipseList = master.conf().eclipseList();
-			if (eclipseList.contains(workerName)) {
-				return true;
-			}
-		}
-		return false;
+		return workerIndex.containsKey(workerName);
 	}
 
 	/**
@@ -336,22 +1082,26 @@ public class Manager {
 		final String name = project.getName();
 		if (NatureUtil.hasPluginNature(project)) {
 
-			Project.Master master = masterMap.get(name);
-			if (master == null) {
-				masterMap.putIfAbsent(name, new Project.Master(project));
-				master = masterMap.get(name);
-				Plugin.logInfo("Manager#masterCreate: new: " + master);
-			} else {
-				Plugin.logInfo("Manager#masterCreate: old: " + master);
+			final Project.Master past = masterMap.get(name);
+			if (past != null) {
+				Plugin.logInfo("Manager#masterCreate: old: " + past);
+				return;
+			}
+			final Project.Master master = masterMake(project);
+			if (master == null || masterMap.putIfAbsent(name, master) != null) {
 				return;
 			}
+			launchUpdate(master);
+			Plugin.logInfo("Manager#masterCreate: new: " + master);
+
+			indexCreate(master, master.conf());
 
 			/** Create master fileinstall.cfg. */
 			master.confCreate();
 
 			/** Update present worker projects. */
 			for (final String workerName : master.conf().eclipseList()) {
-				final IProject worker = ResourceUtil.project(workerName);
+				final IProject worker = project(workerName);
 				if (worker.exists()) {
 					workerCreate(worker);
 				}
@@ -359,6 +1109,25 @@ public class Manager {
 		}
 	}
 
+	/**
+	 * Make master with its configuration parsed and compiled; null when the
+	 * configuration is invalid, so that one broken master does not stop the
+	 * others. Master is registered again on next configuration change.
+	 */
+	private Project.Master masterMake(final IProject project) {
+		final Project.Master master = new Project.Master(project, writerPool,
+				publisher);
+		try {
+			master.ensureConf();
+			master.conf();
+			return master;
+		} catch (final Throwable e) {
+			Plugin.logErrr("Manager#masterMake: invalid configuration: "
+					+ project, e);
+			return null;
+		}
+	}
+
 	/**
 	 * Delete master project.
 	 */
@@ -366,11 +1135,66 @@ public class Manager {
 		final String name = project.getName();
 		final Project.Master master = masterMap.remove(name);
 		if (master != null) {
+			indexDelete(master, master.conf());
 			master.confDelete();
 			Plugin.logInfo("Manager#masterDelete: " + master);
 		}
 	}
 
+	/**
+	 * Apply master configuration change: touch only affected workers.
+	 */
+	private void masterReload(final IProject project) {
+		final String name = project.getName();
+		final Project.Master master = masterMap.get(name);
+		if (master == null) {
+			return;
+		}
+
+		final Conf past = master.conf();
+		final Conf next = master.confReload();
+		if (next == null) {
+			return;
+		}
+
+		synchronized (workerIndex) {
+			indexDelete(master, past);
+			indexCreate(master, next);
+		}
+
+		final boolean isPathChange = !past.fileinstallPath().equals(
+				next.fileinstallPath())
+				|| past.eclipseDeploy() != next.eclipseDeploy()
+				|| !past.fileinstallBundlePath().equals(
+						next.fileinstallBundlePath());
+		final boolean isTemplateChange = !past.fileinstallTemplate().equals(
+				next.fileinstallTemplate());
+		final boolean isCheckChange = !past.hasSameCheck(next);
+
+		Plugin.logInfo("Manager#masterReload: " + master + " path="
+				+ isPathChange + " template=" + isTemplateChange + " check="
+				+ isCheckChange);
+
+		/** Remove dropped workers. */
+		for (final String workerName : past.eclipseSet()) {
+			final boolean isRemoved = !next.hasWorker(workerName);
+			if (isRemoved || isPathChange) {
+				master.confDelete(workerName, past);
+			}
+			if (isRemoved && !isWorkerRequired(workerName)) {
+				workerMap.remove(workerName);
+			}
+		}
+
+		/** Update added or affected workers. */
+		for (final String workerName : next.eclipseSet()) {
+			final boolean isAdded = !past.hasWorker(workerName);
+			if (isAdded || isPathChange || isTemplateChange || isCheckChange) {
+				workerReload(master, next, workerName);
+			}
+		}
+	}
+
 	/**
 	 * Initialize project manager.
 	 */
@@ -378,31 +1202,336 @@ public class Manager {
 
 		masterMap.clear();
 		workerMap.clear();
+		clearIndex();
 
-		final IWorkspace workspace = ResourcesPlugin.getWorkspace();
+		final IWorkspace workspace = workspace();
 
 		workspace.addResourceChangeListener(projectListener);
 
+		final ILaunchManager launchManager = launchManager();
+		launchManager.addLaunchListener(launchListener);
+		launchManager.addLaunchConfigurationListener(configListener);
+		launchSet = launchScan();
+		configSet = configScan();
+
 		/**
 		 * Scan existing projects.
 		 */
+		final List<IProject> masterList = new ArrayList<IProject>();
 		final IProject[] projectList = workspace.getRoot().getProjects();
 		for (final IProject project : projectList) {
 			if (NatureUtil.hasPluginNature(project)) {
-				handleCreate(project);
+				masterList.add(project);
+			}
+		}
+
+		/**
+		 * Load snapshot of previous session, find projects changed since.
+		 */
+		final Set<String> changeSet = new HashSet<String>();
+		final State state = stateLoad(workspace, changeSet);
+
+		handleStartup(masterList, state, changeSet);
+
+	}
+
+	/**
+	 * Register save participant, load persisted snapshot and collect names
+	 * of projects changed since the snapshot was saved.
+	 */
+	private State stateLoad(final IWorkspace workspace,
+			final Set<String> changeSet) {
+		try {
+			final ISavedState saved = workspace.addSaveParticipant(
+					saveParticipantId(), saveParticipant);
+			if (saved == null) {
+				return new State();
+			}
+			saved.processResourceChangeEvents(new IResourceChangeListener() {
+				@Override
+				public void resourceChanged(final IResourceChangeEvent event) {
+					final IResourceDelta delta = event.getDelta();
+					if (delta == null) {
+						return;
+					}
+					for (final IResourceDelta child : delta
+							.getAffectedChildren()) {
+						changeSet.add(child.getResource().getName());
+					}
+				}
+			});
+			final State state = State.load(stateFile());
+			Plugin.logInfo("Manager#stateLoad: changed projects: "
+					+ changeSet.size());
+			return state;
+		} catch (final Throwable e) {
+			Plugin.logErrr("Manager#stateLoad: failure", e);
+			return new State();
+		}
+	}
+
+	/**
+	 * Persist snapshot of tracked worker state and cfg digests.
+	 */
+	private void stateSave() {
+		final State state = new State();
+		state.markers(markerSignature());
+		for (final Project.Worker worker : workerMap.values()) {
+			worker.stateSave(state);
+		}
+		for (final Project.Master master : masterMap.values()) {
+			master.digestSave(state);
+		}
+		try {
+			state.save(stateFile());
+			Plugin.logInfo("Manager#stateSave: workers=" + workerMap.size()
+					+ " masters=" + masterMap.size());
+		} catch (final Throwable e) {
+			Plugin.logErrr("Manager#stateSave: failure", e);
+		}
+	}
+
+	/**
+	 * Save participant is identified by bundle symbolic name; outside of
+	 * OSGi there is no bundle, and no saved state to find.
+	 */
+	private static String saveParticipantId() {
+		final Bundle bundle = FrameworkUtil.getBundle(Manager.class);
+		return bundle == null ? Manager.class.getName() : bundle
+				.getSymbolicName();
+	}
+
+	/**
+	 * Snapshot file in snapshot folder.
+	 */
+	private File stateFile() {
+		final File folder = stateFolder == null ? Plugin.instance()
+				.getStateLocation().toFile() : stateFolder;
+		return new File(folder, State.FILE);
+	}
+
+	/**
+	 * Stable representation of problem marker types in use.
+	 */
+	private String markerSignature() {
+		final String[] typeArray = markerTypes.clone();
+		Arrays.sort(typeArray);
+		return Arrays.toString(typeArray);
+	}
+
+	/**
+	 * Reconcile all masters and workers in a single startup job.
+	 */
+	private void handleStartup(final List<IProject> masterList,
+			final State state, final Set<String> changeSet) {
+
+		final long timeStart = System.nanoTime();
+
+		final ISchedulingRule[] ruleArray = new ISchedulingRule[masterList
+				.size()];
+		for (int index = 0; index < ruleArray.length; index++) {
+			ruleArray[index] = JobUtil.projectRule(masterList.get(index));
+		}
+		final ISchedulingRule rule = MultiRule.combine(ruleArray);
+
+		JobUtil.schedule(rule, new EclipseRunnable(
+				"Manager startup reconcile.") {
+			@Override
+			public void doit(final IProgressMonitor monitor)
+					throws CoreException {
+
+				final String message = "Manager#handleStartup masters="
+						+ masterList.size();
+
+				monitor.beginTask(message, 3);
+				Plugin.logInfo(message);
+
+				final List<Project.Master> masterSet = startupReconcile(
+						masterList, state, changeSet, monitor);
+
+				startupReady(masterSet, timeStart);
+
+				monitor.done();
+			}
+		});
+
+	}
+
+	/**
+	 * Report startup time once the startup writes queued on master writers
+	 * are done.
+	 */
+	private void startupReady(final List<Project.Master> masterSet,
+			final long timeStart) {
+		final AtomicInteger pending = new AtomicInteger(masterSet.size() + 1);
+		final Runnable task = new Runnable() {
+			@Override
+			public void run() {
+				if (pending.decrementAndGet() != 0) {
+					return;
+				}
+				final long timeReady = System.nanoTime() - timeStart;
+				Plugin.logInfo("Manager#handleStartup: ready in "
+						+ TimeUnit.NANOSECONDS.toMillis(timeReady) + " ms");
 			}
+		};
+		for (final Project.Master master : masterSet) {
+			master.writerAfter(task);
 		}
+		task.run();
+	}
+
+	/**
+	 * Discover masters and workers, verify workers in parallel, then write
+	 * the desired fileinstall.cfg set in one pass.
+	 * 
+	 * @return discovered masters
+	 */
+	private List<Project.Master> startupReconcile(
+			final List<IProject> masterList,
+			final State state, final Set<String> changeSet,
+			final IProgressMonitor monitor) {
+
+		/** Discover masters. */
+		final List<Project.Master> masterSet = new ArrayList<Project.Master>();
+		for (final IProject project : masterList) {
+			final String name = project.getName();
+			if (masterMap.containsKey(name)) {
+				continue;
+			}
+			final Project.Master master = masterMake(project);
+			if (master == null || masterMap.putIfAbsent(name, master) != null) {
+				continue;
+			}
+			launchUpdate(master);
+			master.digestSeed(state);
+			indexCreate(master, master.conf());
+			masterSet.add(master);
+			Plugin.logInfo("Manager#startupReconcile: master: " + master);
+		}
+		monitor.worked(1);
+
+		/** Discover workers, trust unchanged snapshot entries. */
+		final boolean isErrorValid = markerSignature().equals(state.markers());
+		final List<Project.Worker> workerList = new ArrayList<Project.Worker>();
+		int countTrusted = 0;
+		for (final String workerName : workerIndex.keySet()) {
+			final IProject project = project(workerName);
+			if (!NatureUtil.hasJavaNature(project)) {
+				continue;
+			}
+			workerMap.putIfAbsent(workerName, new Project.Worker(project,
+					markerTypes));
+			final Project.Worker worker = workerMap.get(workerName);
+			if (!changeSet.contains(workerName)
+					&& worker.stateSeed(state, isErrorValid)) {
+				countTrusted++;
+			}
+			workerList.add(worker);
+		}
+		Plugin.logInfo("Manager#startupReconcile: trusted snapshot workers: "
+				+ countTrusted + " / " + workerList.size());
+
+		/** Verify workers in parallel. */
+		final Map<String, Project.Health> verifyMap = startupVerify(workerList);
+		monitor.worked(1);
+
+		/** Write desired configuration. */
+		for (final Project.Master master : masterSet) {
+			final Conf conf = master.conf();
+			for (final String workerName : conf.eclipseList()) {
+				final Project.Health health = verifyMap.get(workerName);
+				if (health == null && verifyMap.containsKey(workerName)) {
+					/** Superseded, newer evaluation will apply. */
+					continue;
+				}
+				final Project.Worker worker = workerMap.get(workerName);
+				if (health != null && worker != null) {
+					master.confApply(worker, health, conf);
+				} else if (project(workerName).exists()) {
+					master.confDelete(workerName, conf);
+				}
+			}
+		}
+		monitor.worked(1);
+
+		Plugin.logInfo("Manager#startupReconcile: masters=" + masterSet.size()
+				+ " workers=" + workerList.size());
+
+		return masterSet;
 
 	}
 
+	/**
+	 * Verify workers on a bounded thread pool.
+	 */
+	private Map<String, Project.Health> startupVerify(
+			final List<Project.Worker> workerList) {
+
+		final Map<String, Project.Health> //
+		verifyMap = new HashMap<String, Project.Health>();
+		if (workerList.isEmpty()) {
+			return verifyMap;
+		}
+
+		final int poolSize = Math.min(workerList.size(),
+				Math.min(STARTUP_POOL, Runtime.getRuntime()
+						.availableProcessors()));
+
+		final ExecutorService executor = Executors.newFixedThreadPool(poolSize);
+
+		try {
+
+			final List<Callable<Project.Health>> //
+			taskList = new ArrayList<Callable<Project.Health>>();
+			for (final Project.Worker worker : workerList) {
+				taskList.add(new Callable<Project.Health>() {
+					@Override
+					public Project.Health call() throws Exception {
+						return workerVerify(worker);
+					}
+				});
+			}
+
+			final List<Future<Project.Health>> futureList = executor
+					.invokeAll(taskList);
+
+			for (int index = 0; index < workerList.size(); index++) {
+				final String name = workerList.get(index).name();
+				try {
+					verifyMap.put(name, futureList.get(index).get());
+				} catch (final ExecutionException e) {
+					/** Not in the map, master removes its cfg. */
+					Plugin.logErrr("Manager#startupVerify: failure: " + name,
+							e.getCause());
+				}
+			}
+
+		} catch (final InterruptedException e) {
+			Thread.currentThread().interrupt();
+		} finally {
+			executor.shutdownNow();
+		}
+
+		return verifyMap;
+	}
+
 	/**
 	 * Terminate project manager.
 	 */
 	public void stop() {
 
-		final IWorkspace workspace = ResourcesPlugin.getWorkspace();
+		batchJob.cancel();
+		batchMap.clear();
+
+		final IWorkspace workspace = workspace();
 
 		workspace.removeResourceChangeListener(projectListener);
+		workspace.removeSaveParticipant(saveParticipantId());
+
+		final ILaunchManager launchManager = launchManager();
+		launchManager.removeLaunchListener(launchListener);
+		launchManager.removeLaunchConfigurationListener(configListener);
 
 		/**
 		 * Scan existing projects.
@@ -416,6 +1545,8 @@ public class Manager {
 
 		masterMap.clear();
 		workerMap.clear();
+		clearIndex();
+		Assembly.clear();
 
 	}
 
@@ -424,14 +1555,13 @@ public class Manager {
 	 */
 	private boolean workerActivate(final String workerName) {
 		int count = 0;
-		for (final Project.Master master : masterMap.values()) {
-			final List<String> eclipseList = master.conf().eclipseList();
-			if (eclipseList.contains(workerName)) {
-				master.confCreate(workerName);
-				count++;
-			}
+		for (final Project.Master master : masterSet(workerName)) {
+			master.confCreate(workerName);
+			count++;
+		}
+		if (Plugin.isLogOK()) {
+			Plugin.logOK("Manager#workerActivate " + count + " / " + workerName);
 		}
-		Plugin.logOK("Manager#workerActivate " + count + " / " + workerName);
 		return count > 0;
 	}
 
@@ -444,7 +1574,8 @@ public class Manager {
 
 			Project.Worker worker = workerMap.get(name);
 			if (worker == null) {
-				workerMap.putIfAbsent(name, new Project.Worker(project));
+				workerMap.putIfAbsent(name, new Project.Worker(project,
+						markerTypes));
 				worker = workerMap.get(name);
 				Plugin.logInfo("Manager#workerCreate: new: " + worker);
 			} else {
@@ -461,14 +1592,14 @@ public class Manager {
 	 */
 	private boolean workerDeactivate(final String workerName) {
 		int count = 0;
-		for (final Project.Master master : masterMap.values()) {
-			final List<String> eclipseList = master.conf().eclipseList();
-			if (eclipseList.contains(workerName)) {
-				master.confDelete(workerName);
-				count++;
-			}
+		for (final Project.Master master : masterSet(workerName)) {
+			master.confDelete(workerName);
+			count++;
+		}
+		if (Plugin.isLogOK()) {
+			Plugin.logOK("Manager#workerDeactivate " + count + " / "
+					+ workerName);
 		}
-		Plugin.logOK("Manager#workerDeactivate " + count + " / " + workerName);
 		return count > 0;
 	}
 
@@ -480,10 +1611,37 @@ public class Manager {
 		final Project worker = workerMap.remove(name);
 		if (worker != null) {
 			workerDeactivate(name);
+			Assembly.remove(name);
 			Plugin.logInfo("Manager#workerDelete " + worker);
 		}
 	}
 
+	/**
+	 * Verify worker and update its fileinstall.cfg for a single master.
+	 */
+	private void workerReload(final Project.Master master, final Conf conf,
+			final String workerName) {
+		final IProject project = project(workerName);
+		if (!NatureUtil.hasJavaNature(project)) {
+			return;
+		}
+
+		Project.Worker worker = workerMap.get(workerName);
+		if (worker == null) {
+			workerMap.putIfAbsent(workerName, new Project.Worker(project,
+					markerTypes));
+			worker = workerMap.get(workerName);
+			Plugin.logInfo("Manager#workerReload: new: " + worker);
+		}
+
+		final Project.Health health = workerVerify(worker);
+		if (health == null) {
+			return;
+		}
+
+		master.confApply(worker, health, conf);
+	}
+
 	/**
 	 * Process worker update.
 	 */
@@ -0,0 +1,285 @@
+/**
+ * Copyright (C) 2010-2013 Andrei Pozolotin <Andrei.Pozolotin@gmail.com>
+ *
+ * All rights reserved. Licensed under the OSI BSD License.
+ *
+ * http://www.opensource.org/licenses/bsd-license.php
+ */
+package com.carrotgarden.eclipse.fileinstall;
+
+import java.lang.management.ManagementFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
+/**
+ * Plug-in metrics registry: counters and latency histograms for the
+ * build-to-deploy pipeline.
+ */
+public class Metrics implements MetricsMBean {
+
+	/**
+	 * Latency histogram with power-of-two microsecond buckets.
+	 */
+	public static class Histogram {
+
+		private static final int SIZE = 40;
+
+		private final AtomicLongArray bucketArray = new AtomicLongArray(SIZE);
+
+		private final AtomicLong count = new AtomicLong();
+
+		private final AtomicLong max = new AtomicLong();
+
+		private final String name;
+
+		private final AtomicLong total = new AtomicLong();
+
+		Histogram(final String name) {
+			this.name = name;
+		}
+
+		public long count() {
+			return count.get();
+		}
+
+		public long maxMicros() {
+			return max.get();
+		}
+
+		public long meanMicros() {
+			final long count = this.count.get();
+			return count == 0 ? 0 : total.get() / count;
+		}
+
+		/**
+		 * Upper bound of bucket which holds the percentile, microseconds.
+		 */
+		public long percentileMicros(final double percentile) {
+			final long count = this.count.get();
+			if (count == 0) {
+				return 0;
+			}
+			final long limit = (long) Math.ceil(count * percentile);
+			long sum = 0;
+			for (int index = 0; index < SIZE; index++) {
+				sum += bucketArray.get(index);
+				if (sum >= limit) {
+					return Math.min(1L << index, max.get());
+				}
+			}
+			return max.get();
+		}
+
+		/**
+		 * Record duration in nanoseconds.
+		 */
+		public void record(final long nanos) {
+			final long micros = Math.max(0,
+					TimeUnit.NANOSECONDS.toMicros(nanos));
+			final int index = Math.min(SIZE - 1,
+					64 - Long.numberOfLeadingZeros(micros));
+			bucketArray.incrementAndGet(index);
+			count.incrementAndGet();
+			total.addAndGet(micros);
+			while (true) {
+				final long past = max.get();
+				if (micros <= past || max.compareAndSet(past, micros)) {
+					break;
+				}
+			}
+		}
+
+		void render(final StringBuilder text) {
+			text.append(name).append(": count=").append(count())
+					.append(" mean=").append(meanMicros())
+					.append("us p50=").append(percentileMicros(0.50))
+					.append("us p99=").append(percentileMicros(0.99))
+					.append("us max=").append(maxMicros()).append("us\n");
+		}
+
+		void reset() {
+			for (int index = 0; index < SIZE; index++) {
+				bucketArray.set(index, 0);
+			}
+			count.set(0);
+			total.set(0);
+			max.set(0);
+		}
+
+	}
+
+	private static final Metrics INSTANCE = new Metrics();
+
+	/**
+	 * JMX object name.
+	 */
+	public static final String OBJECT_NAME = Plugin.PLUGIN_ID
+			+ ":type=Metrics";
+
+	/**
+	 * Plug-in metrics singleton.
+	 */
+	public static Metrics instance() {
+		return INSTANCE;
+	}
+
+	public final AtomicLong builderEvents = new AtomicLong();
+
+	public final AtomicLong confDeletes = new AtomicLong();
+
+	public final AtomicLong confSkips = new AtomicLong();
+
+	public final AtomicLong confWrites = new AtomicLong();
+
+	public final Histogram confWriteTime = new Histogram("conf-write");
+
+	public final Histogram jobWaitTime = new Histogram("job-wait");
+
+	public final AtomicLong queueDepth = new AtomicLong();
+
+	public final Histogram verifyTime = new Histogram("worker-verify");
+
+	public final AtomicLong workerEvents = new AtomicLong();
+
+	public final AtomicLong workerFlaps = new AtomicLong();
+
+	public final AtomicLong workerStale = new AtomicLong();
+
+	private Metrics() {
+	}
+
+	@Override
+	public String dump() {
+		final StringBuilder text = new StringBuilder(1024);
+		text.append("builder-events: ").append(builderEvents.get())
+				.append('\n');
+		text.append("worker-events: ").append(workerEvents.get())
+				.append('\n');
+		text.append("worker-flaps: ").append(workerFlaps.get()).append('\n');
+		text.append("worker-stale: ").append(workerStale.get()).append('\n');
+		text.append("queue-depth: ").append(queueDepth.get()).append('\n');
+		text.append("conf-writes: ").append(confWrites.get()).append('\n');
+		text.append("conf-skips: ").append(confSkips.get()).append('\n');
+		text.append("conf-deletes: ").append(confDeletes.get()).append('\n');
+		verifyTime.render(text);
+		confWriteTime.render(text);
+		jobWaitTime.render(text);
+		return text.toString();
+	}
+
+	@Override
+	public long getBuilderEvents() {
+		return builderEvents.get();
+	}
+
+	@Override
+	public long getConfDeletes() {
+		return confDeletes.get();
+	}
+
+	@Override
+	public long getConfSkips() {
+		return confSkips.get();
+	}
+
+	@Override
+	public long getConfWrites() {
+		return confWrites.get();
+	}
+
+	@Override
+	public long getJobWaitMaxMicros() {
+		return jobWaitTime.maxMicros();
+	}
+
+	@Override
+	public long getJobWaitMeanMicros() {
+		return jobWaitTime.meanMicros();
+	}
+
+	@Override
+	public long getQueueDepth() {
+		return queueDepth.get();
+	}
+
+	@Override
+	public long getVerifyCount() {
+		return verifyTime.count();
+	}
+
+	@Override
+	public long getVerifyMaxMicros() {
+		return verifyTime.maxMicros();
+	}
+
+	@Override
+	public long getVerifyMeanMicros() {
+		return verifyTime.meanMicros();
+	}
+
+	@Override
+	public long getWorkerEvents() {
+		return workerEvents.get();
+	}
+
+	@Override
+	public long getWorkerFlaps() {
+		return workerFlaps.get();
+	}
+
+	@Override
+	public long getWorkerStale() {
+		return workerStale.get();
+	}
+
+	/**
+	 * Register with platform MBean server.
+	 */
+	public void register() {
+		try {
+			final MBeanServer server = ManagementFactory
+					.getPlatformMBeanServer();
+			final ObjectName name = new ObjectName(OBJECT_NAME);
+			if (!server.isRegistered(name)) {
+				server.registerMBean(this, name);
+			}
+		} catch (final Throwable e) {
+			Plugin.logErrr("Metrics#register: failure", e);
+		}
+	}
+
+	@Override
+	public void reset() {
+		builderEvents.set(0);
+		confDeletes.set(0);
+		confSkips.set(0);
+		confWrites.set(0);
+		confWriteTime.reset();
+		jobWaitTime.reset();
+		verifyTime.reset();
+		workerEvents.set(0);
+		workerFlaps.set(0);
+		workerStale.set(0);
+	}
+
+	/**
+	 * Remove from platform MBean server.
+	 */
+	public void unregister() {
+		try {
+			final MBeanServer server = ManagementFactory
+					.getPlatformMBeanServer();
+			final ObjectName name = new ObjectName(OBJECT_NAME);
+			if (server.isRegistered(name)) {
+				server.unregisterMBean(name);
+			}
+		} catch (final Throwable e) {
+			Plugin.logErrr("Metrics#unregister: failure", e);
+		}
+	}
+
+}
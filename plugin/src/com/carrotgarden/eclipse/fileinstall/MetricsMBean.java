@@ -0,0 +1,62 @@
+/**
+ * Copyright (C) 2010-2013 Andrei Pozolotin <Andrei.Pozolotin@gmail.com>
+ *
+ * All rights reserved. Licensed under the OSI BSD License.
+ *
+ * http://www.opensource.org/licenses/bsd-license.php
+ */
+package com.carrotgarden.eclipse.fileinstall;
+
+/**
+ * JMX view of plug-in metrics.
+ * 
+ * @see Metrics
+ */
+public interface MetricsMBean {
+
+	/** Compilation participant events received. */
+	long getBuilderEvents();
+
+	/** Worker build events accepted for processing. */
+	long getWorkerEvents();
+
+	/** Worker check evaluations. */
+	long getVerifyCount();
+
+	/** Worker check evaluation mean time, microseconds. */
+	long getVerifyMeanMicros();
+
+	/** Worker check evaluation maximum time, microseconds. */
+	long getVerifyMaxMicros();
+
+	/** Worker state changes between positive and negative. */
+	long getWorkerFlaps();
+
+	/** Worker check results dropped as superseded by a newer build. */
+	long getWorkerStale();
+
+	/** Performed fileinstall.cfg writes. */
+	long getConfWrites();
+
+	/** Skipped unchanged fileinstall.cfg writes. */
+	long getConfSkips();
+
+	/** Performed fileinstall.cfg deletes. */
+	long getConfDeletes();
+
+	/** Pending worker build events. */
+	long getQueueDepth();
+
+	/** Plug-in job wait mean time, microseconds. */
+	long getJobWaitMeanMicros();
+
+	/** Plug-in job wait maximum time, microseconds. */
+	long getJobWaitMaxMicros();
+
+	/** Render all metrics as text. */
+	String dump();
+
+	/** Reset all metrics. */
+	void reset();
+
+}
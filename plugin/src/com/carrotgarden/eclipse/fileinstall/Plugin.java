@@ -8,16 +8,21 @@
 package com.carrotgarden.eclipse.fileinstall;
 
 import java.io.PrintWriter;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
 
-import org.eclipse.core.runtime.ILogListener;
+import org.eclipse.core.runtime.ILog;
 import org.eclipse.core.runtime.IStatus;
 import org.eclipse.core.runtime.Status;
 import org.eclipse.ui.IStartup;
 import org.eclipse.ui.plugin.AbstractUIPlugin;
 import org.osgi.framework.BundleContext;
 
+import com.carrotgarden.eclipse.fileinstall.util.ConfUtil;
 import com.carrotgarden.eclipse.fileinstall.util.ConsoleUtil;
 import com.carrotgarden.eclipse.fileinstall.util.ConsoleUtil.Console;
+import com.carrotgarden.eclipse.fileinstall.util.ConsoleUtil.Severity;
+import com.carrotgarden.eclipse.fileinstall.util.LogRing;
 
 /**
  * Plug-in for eclipse + fileinstall integration.
@@ -41,15 +46,80 @@ public class Plugin extends AbstractUIPlugin implements IStartup {
 		return PLUGIN;
 	}
 
+	/**
+	 * System property with minimum logged severity: OK, INFO, WARN, ERROR.
+	 */
+	public static final String LOG_LEVEL = PLUGIN_ID + ".log.level";
+
+	/**
+	 * Minimum logged severity.
+	 */
+	private static volatile int logLevel = logLevel(System.getProperty(
+			LOG_LEVEL, Severity.INFO.name()));
+
+	/**
+	 * Log ring buffer capacity.
+	 */
+	private static final int LOG_CAPACITY = 4 * 1024;
+
+	/**
+	 * Maximum records per writer batch.
+	 */
+	private static final int LOG_BATCH = 256;
+
+	/**
+	 * Writer idle park time, nanoseconds.
+	 */
+	private static final long LOG_PARK = TimeUnit.MILLISECONDS.toNanos(100);
+
+	/**
+	 * Verify if severity passes log level threshold; use to avoid message
+	 * construction on hot paths.
+	 */
+	public static boolean isLoggable(final int severity) {
+		return severity >= logLevel;
+	}
+
+	/**
+	 * Verify if debugging messages are logged.
+	 */
+	public static boolean isLogOK() {
+		return isLoggable(IStatus.OK);
+	}
+
+	/**
+	 * Change minimum logged severity.
+	 */
+	public static void logLevel(final int severity) {
+		logLevel = severity;
+	}
+
+	/**
+	 * Parse minimum logged severity.
+	 */
+	private static int logLevel(final String value) {
+		try {
+			return Severity.valueOf(value.trim().toUpperCase()).code;
+		} catch (final Throwable e) {
+			return IStatus.INFO;
+		}
+	}
+
 	/**
 	 * Log eclipse status.
 	 */
 	public static void log(final IStatus status) {
+		if (!isLoggable(status.getSeverity())) {
+			return;
+		}
 		final Plugin instance = instance();
 		if (instance == null) {
 			System.err.println(status);
 		} else {
-			instance.getLog().log(status);
+			instance.logRing.offer(status);
+			if (instance.logParked) {
+				LockSupport.unpark(instance.logThread);
+			}
 		}
 	}
 
@@ -66,6 +136,9 @@ public class Plugin extends AbstractUIPlugin implements IStartup {
 	 * Log eclipse information.
 	 */
 	public static void logInfo(final String message) {
+		if (!isLoggable(IStatus.INFO)) {
+			return;
+		}
 		final IStatus status = new Status(IStatus.INFO, Plugin.PLUGIN_ID, 0,
 				message, null);
 		log(status);
@@ -75,6 +148,9 @@ public class Plugin extends AbstractUIPlugin implements IStartup {
 	 * Log eclipse debugging.
 	 */
 	public static void logOK(final String message) {
+		if (!isLoggable(IStatus.OK)) {
+			return;
+		}
 		final IStatus status = new Status(IStatus.OK, Plugin.PLUGIN_ID, 0,
 				message, null);
 		log(status);
@@ -84,6 +160,9 @@ public class Plugin extends AbstractUIPlugin implements IStartup {
 	 * Log eclipse warning.
 	 */
 	public static void logWarn(final String message) {
+		if (!isLoggable(IStatus.WARNING)) {
+			return;
+		}
 		final IStatus status = new Status(IStatus.WARNING, Plugin.PLUGIN_ID, 0,
 				message, null);
 		log(status);
@@ -104,13 +183,28 @@ public class Plugin extends AbstractUIPlugin implements IStartup {
 	private final Console logConsole = ConsoleUtil.console("Fileinstall");
 
 	/**
-	 * Plug-in console listener.
+	 * Pending log records.
+	 */
+	private final LogRing logRing = new LogRing(LOG_CAPACITY);
+
+	/**
+	 * Log writer is parked waiting for records.
+	 */
+	private volatile boolean logParked;
+
+	/**
+	 * Log writer is requested to terminate.
+	 */
+	private volatile boolean logStopped;
+
+	/**
+	 * Single background log writer: drains records in batches into eclipse
+	 * log and plug-in console.
 	 */
-	private final ILogListener logListener = new ILogListener() {
+	private final Thread logThread = new Thread("Fileinstall log writer") {
 		@Override
-		public void logging(final IStatus status, final String plugin) {
-			logWrier.println(ConsoleUtil.render(status));
-			logWrier.flush();
+		public void run() {
+			logDrain();
 		}
 	};
 
@@ -149,21 +243,82 @@ public class Plugin extends AbstractUIPlugin implements IStartup {
 		return manager;
 	}
 
+	/**
+	 * Drain log records until stopped and empty.
+	 */
+	private void logDrain() {
+
+		final ILog log = getLog();
+		final StringBuilder text = new StringBuilder(16 * 1024);
+		long dropPast = 0;
+
+		while (true) {
+
+			int count = 0;
+			LogRing.Entry entry;
+			while (count < LOG_BATCH && (entry = logRing.poll()) != null) {
+				try {
+					log.log(entry.status);
+				} catch (final Throwable e) {
+					System.err.println(entry.status);
+				}
+				ConsoleUtil.render(text, entry.status, entry.time);
+				text.append('\n');
+				count++;
+			}
+
+			final long dropNext = logRing.dropCount();
+			if (dropNext != dropPast) {
+				text.append("log records dropped: ")
+						.append(dropNext - dropPast).append('\n');
+				dropPast = dropNext;
+			}
+
+			if (text.length() > 0) {
+				logWrier.print(text);
+				logWrier.flush();
+				text.setLength(0);
+			}
+
+			if (count > 0) {
+				continue;
+			}
+
+			if (logStopped && logRing.isEmpty()) {
+				return;
+			}
+
+			logParked = true;
+			if (logRing.isEmpty() && !logStopped) {
+				LockSupport.parkNanos(this, LOG_PARK);
+			}
+			logParked = false;
+
+		}
+
+	}
+
 	@Override
 	public void start(final BundleContext context) throws Exception {
 		super.start(context);
 		this.context = context;
 		PLUGIN = this;
-		PLUGIN.getLog().addLogListener(logListener);
+		logThread.setDaemon(true);
+		logThread.start();
 		logInfo("plugin start: " + version());
+		Metrics.instance().register();
 		manager.start();
 	}
 
 	@Override
 	public void stop(final BundleContext context) throws Exception {
 		manager.stop();
+		ConfUtil.configClear();
+		Metrics.instance().unregister();
 		logInfo("plugin stop: " + version());
-		PLUGIN.getLog().removeLogListener(logListener);
+		logStopped = true;
+		LockSupport.unpark(logThread);
+		logThread.join(TimeUnit.SECONDS.toMillis(1));
 		super.stop(context);
 		PLUGIN = null;
 		this.context = null;
@@ -8,16 +8,32 @@
 package com.carrotgarden.eclipse.fileinstall;
 
 import java.io.File;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.zip.ZipException;
 
 import org.eclipse.core.resources.IMarker;
+import org.eclipse.core.resources.IMarkerDelta;
 import org.eclipse.core.resources.IProject;
+import org.eclipse.core.resources.IResourceDelta;
+import org.eclipse.core.resources.IWorkspaceRoot;
+import org.eclipse.core.runtime.IPath;
+import org.eclipse.core.runtime.Path;
 
 import com.carrotgarden.eclipse.fileinstall.util.ConfUtil;
 import com.carrotgarden.eclipse.fileinstall.util.FileUtil;
 import com.carrotgarden.eclipse.fileinstall.util.ProjectUtil;
 import com.carrotgarden.eclipse.fileinstall.util.ResourceUtil;
+import com.carrotgarden.eclipse.fileinstall.util.SerialExecutor;
 
 /**
  * Project managed by the plug-in.
@@ -37,43 +53,48 @@ public class Project {
 	}
 
 	/**
-	 * State change detector.
+	 * Immutable worker health, tagged with the worker generation it was
+	 * evaluated for.
 	 */
-	private abstract class ChangeDetector {
+	public static class Health {
 
-		/**
-		 * Remember if past is positive.
-		 */
-		volatile boolean isPositive = false;
+		/** Nothing evaluated yet. */
+		static final Health NONE = new Health(-1, false, false, null);
 
-		/**
-		 * Remember past state value.
-		 */
-		volatile Change past = Change.UNCHANGED;
+		/** Worker generation of the evaluation inputs. */
+		public final long generation;
 
-		/**
-		 * Update once, report change from the past.
-		 */
-		Change change() {
-			final Change next = next();
-			if (next == past) {
-				return Change.UNCHANGED;
-			} else {
-				past = next;
-				isPositive = (next == Change.POSITIVE);
-				if (isPositive) {
-					return Change.POSITIVE;
-				} else {
-					return Change.NEGATIVE;
-				}
-			}
+		public final boolean isManifestPresent;
+
+		public final boolean isBuildSuccess;
+
+		/** Verification result; null when not verified yet. */
+		public final Boolean isPositive;
+
+		Health(final long generation, final boolean isManifestPresent,
+				final boolean isBuildSuccess, final Boolean isPositive) {
+			this.generation = generation;
+			this.isManifestPresent = isManifestPresent;
+			this.isBuildSuccess = isBuildSuccess;
+			this.isPositive = isPositive;
 		}
 
+	}
+
+	/**
+	 * Java project class path descriptor, relative to the project.
+	 */
+	private static final IPath CLASSPATH = new Path(ProjectUtil.CLASSPATH_FILE);
+
+	/**
+	 * Receiver of worker publish requests from masters.
+	 */
+	public interface Publisher {
+
 		/**
-		 * Report current state; must be {@link Change#POSITIVE} or
-		 * {@link Change#NEGATIVE}.
+		 * Publish worker deployment again in a later batch.
 		 */
-		abstract Change next();
+		void publish(String worker);
 
 	}
 
@@ -87,20 +108,107 @@ public class Project {
 		 */
 		private volatile Conf conf;
 
-		public Master(final IProject project) {
+		/**
+		 * Digest of last known fileinstall.cfg content, keyed by file path.
+		 */
+		private final ConcurrentMap<String, String> //
+		digestMap = new ConcurrentHashMap<String, String>();
+
+		/**
+		 * Persisted snapshot to seed digests from, if any.
+		 */
+		private volatile State digestState;
+
+		/**
+		 * Count of skipped fileinstall.cfg writes.
+		 */
+		private final AtomicLong digestHit = new AtomicLong();
+
+		/**
+		 * Count of performed fileinstall.cfg writes.
+		 */
+		private final AtomicLong digestMiss = new AtomicLong();
+
+		/**
+		 * Assembly generation of last published bundle jar, keyed by file
+		 * path.
+		 */
+		private final ConcurrentMap<String, Long> //
+		bundleMap = new ConcurrentHashMap<String, Long>();
+
+		/**
+		 * Master launch configuration exists; writer thread only.
+		 */
+		private boolean isLaunchConfigured;
+
+		/**
+		 * Master launch configuration is running; writer thread only.
+		 */
+		private boolean isLaunchRunning;
+
+		/**
+		 * Workers with deployment held while master launch is not running;
+		 * writer thread only.
+		 */
+		private final Set<String> holdSet = new HashSet<String>();
+
+		/**
+		 * Serial fileinstall.cfg writer for this master.
+		 */
+		private final SerialExecutor writer;
+
+		/**
+		 * Retry target for failed worker bundle assembly.
+		 */
+		private final Publisher publisher;
+
+		/**
+		 * @param pool
+		 *            shared executor for master writers
+		 * @param publisher
+		 *            receiver of worker publish retries
+		 */
+		public Master(final IProject project, final Executor pool,
+				final Publisher publisher) {
 			super(project);
+			this.writer = new SerialExecutor(pool);
+			this.publisher = publisher;
 		}
 
 		/**
-		 * Project plug-in configuration.
+		 * Project plug-in configuration; parsed once.
 		 */
 		public Conf conf() {
+			Conf conf = this.conf;
 			if (conf == null) {
-				conf = new Conf(ConfUtil.config(project()));
+				synchronized (this) {
+					conf = this.conf;
+					if (conf == null) {
+						conf = new Conf(ConfUtil.config(project()));
+						this.conf = conf;
+					}
+				}
 			}
 			return conf;
 		}
 
+		/**
+		 * Parse project plug-in configuration again; keep current on
+		 * failure.
+		 * 
+		 * @return new configuration or null on failure
+		 */
+		public synchronized Conf confReload() {
+			try {
+				final Conf conf = new Conf(ConfUtil.config(project()));
+				this.conf = conf;
+				return conf;
+			} catch (final Throwable e) {
+				Plugin.logErrr("Project#confReload: failure", e);
+				return null;
+			}
+		}
+
 		/**
 		 * Create all live workers for a master.
 		 */
@@ -109,7 +217,7 @@ public class Project {
 			final Conf conf = conf();
 			final List<String> list = conf.eclipseList();
 			for (final String worker : list) {
-				if (ResourceUtil.hasProjectOpen(worker)) {
+				if (ResourceUtil.hasProjectOpen(root(), worker)) {
 					confCreate(worker);
 				}
 			}
@@ -120,33 +228,119 @@ public class Project {
 		 */
 		public void confCreate(final String worker) {
 			ensureConf();
-			final Conf conf = conf();
+			confCreate(worker, conf());
+		}
+
+		/**
+		 * Create worker-specific fileinstall.cfg file for the master using
+		 * provided configuration.
+		 */
+		public void confCreate(final String worker, final Conf conf) {
+			writer.execute(new Runnable() {
+				@Override
+				public void run() {
+					confCreateNow(worker, conf);
+				}
+			});
+		}
 
-			if (!ResourceUtil.hasProject(worker)) {
+		/**
+		 * Create worker-specific fileinstall.cfg file on writer thread.
+		 */
+		private void confCreateNow(final String worker, final Conf conf) {
+
+			if (!ResourceUtil.hasProject(root(), worker)) {
 				Plugin.logWarn("Project#confCreate: missing project: " + worker);
 				return;
 			}
 
-			final Map<String, String> variables = //
-			Conf.variables(ResourceUtil.workspacePath(), worker,
-					ResourceUtil.projectPath(worker));
+			if (isHold(conf)) {
+				if (holdSet.add(worker)) {
+					Plugin.logWarn("Project#confCreate hold: " + worker
+							+ " @ " + name() + ": master launch config"
+							+ " is not running;"
+							+ " see check.is-master-launch-running in "
+							+ Conf.PROJ_FILE);
+				}
+				return;
+			}
+
+			final IWorkspaceRoot root = root();
+			final String[] values = Conf.values(
+					ResourceUtil.workspacePath(root), worker,
+					ResourceUtil.projectPath(root, worker));
+
+			if (conf.eclipseDeploy() == Conf.Deploy.BUNDLE) {
+				bundleCreate(worker, conf, values);
+				return;
+			}
 
-			final String path = ConfUtil.replace(//
-					conf.fileinstallPath(), variables);
+			final String path = conf.fileinstallPath(values);
 
-			final String tempalte = ConfUtil.replace(//
-					conf.fileinstallTemplate(), variables);
+			final String tempalte = conf.fileinstallTemplate(values);
 
 			final File file = ProjectUtil.file(project(), path);
 
+			final String digest = FileUtil.digest(tempalte);
+
+			if (digest.equals(digestPast(file))) {
+				final long hit = digestHit.incrementAndGet();
+				Metrics.instance().confSkips.incrementAndGet();
+				if (Plugin.isLogOK()) {
+					Plugin.logOK("Project#confCreate skip: " + file + " hit="
+							+ hit + " miss=" + digestMiss.get());
+				}
+				return;
+			}
+
 			try {
-				FileUtil.writeTextFile(file, tempalte);
-				Plugin.logOK("Project#confCreate file: " + file);
+				final long timeStart = System.nanoTime();
+				FileUtil.publishTextFile(file, tempalte);
+				final Metrics metrics = Metrics.instance();
+				metrics.confWriteTime.record(System.nanoTime() - timeStart);
+				metrics.confWrites.incrementAndGet();
+				digestMap.put(file.getPath(), digest);
+				final long miss = digestMiss.incrementAndGet();
+				if (Plugin.isLogOK()) {
+					Plugin.logOK("Project#confCreate file: " + file + " hit="
+							+ digestHit.get() + " miss=" + miss);
+				}
 			} catch (final Throwable e) {
+				digestMap.remove(file.getPath());
 				Plugin.logErrr("Project#confCreate failure", e);
 			}
 		}
 
+		/**
+		 * Digest of current fileinstall.cfg content; null when missing.
+		 */
+		private String digestPast(final File file) {
+			final String key = file.getPath();
+			if (!file.exists()) {
+				digestMap.remove(key);
+				return null;
+			}
+			final String cached = digestMap.get(key);
+			if (cached != null) {
+				return cached;
+			}
+			final State state = digestState;
+			final String seed = state == null ? null : state.digest(file);
+			if (seed != null) {
+				digestMap.put(key, seed);
+				return seed;
+			}
+			try {
+				final String digest = FileUtil.digest(FileUtil
+						.readTextFile(file));
+				digestMap.put(key, digest);
+				return digest;
+			} catch (final Throwable e) {
+				Plugin.logErrr("Project#digestPast failure", e);
+				return null;
+			}
+		}
+
 		/**
 		 * Delete all fileinstall.cfg file for the master.
 		 */
@@ -164,26 +358,233 @@ public class Project {
 		 */
 		public void confDelete(final String worker) {
 
-			if (!ResourceUtil.hasProject(worker)) {
+			if (!ResourceUtil.hasProject(root(), worker)) {
 				Plugin.logWarn("Project#confDelete: missing project: " + worker);
 				return;
 			}
 
 			ensureConf();
-			final Conf conf = conf();
+			confDelete(worker, conf());
+		}
+
+		/**
+		 * Delete worker-specific fileinstall.cfg file for the master using
+		 * provided configuration.
+		 */
+		public void confDelete(final String worker, final Conf conf) {
+			writer.execute(new Runnable() {
+				@Override
+				public void run() {
+					confDeleteNow(worker, conf);
+				}
+			});
+		}
 
-			final Map<String, String> variables = //
-			Conf.variables(ResourceUtil.workspacePath(), worker,
-					ResourceUtil.projectPath(worker));
+		/**
+		 * Delete worker-specific fileinstall.cfg file on writer thread.
+		 */
+		private void confDeleteNow(final String worker, final Conf conf) {
 
-			final String path = ConfUtil.replace(//
-					conf.fileinstallPath(), variables);
+			holdSet.remove(worker);
+
+			if (!ResourceUtil.hasProject(root(), worker)) {
+				Plugin.logWarn("Project#confDelete: missing project: " + worker);
+				return;
+			}
+
+			final IWorkspaceRoot root = root();
+			final String[] values = Conf.values(
+					ResourceUtil.workspacePath(root), worker,
+					ResourceUtil.projectPath(root, worker));
+
+			if (conf.eclipseDeploy() == Conf.Deploy.BUNDLE) {
+				bundleDelete(worker, conf, values);
+				return;
+			}
+
+			final String path = conf.fileinstallPath(values);
 
 			final File file = ProjectUtil.file(project(), path);
 
-			file.delete();
+			if (file.delete()) {
+				Metrics.instance().confDeletes.incrementAndGet();
+			}
+			digestMap.remove(file.getPath());
+
+			if (Plugin.isLogOK()) {
+				Plugin.logOK("Project#confDelete file: " + file);
+			}
+		}
+
+		/**
+		 * Verify if deployment must wait for master launch; only a master
+		 * with a launch configuration can be waited for.
+		 */
+		private boolean isHold(final Conf conf) {
+			return conf.check().eclipseCheckIsMasterLaunchRunning()
+					&& isLaunchConfigured && !isLaunchRunning;
+		}
+
+		/**
+		 * Create or delete worker-specific fileinstall.cfg file from accepted
+		 * worker health.
+		 */
+		public void confApply(final Worker worker, final Health health) {
+			ensureConf();
+			confApply(worker, health, conf());
+		}
+
+		/**
+		 * Create or delete worker-specific fileinstall.cfg file from accepted
+		 * worker health using provided configuration. Task is dropped on the
+		 * writer thread if a newer health was accepted meanwhile: its own
+		 * task is queued behind, so the last accepted result is applied last.
+		 */
+		public void confApply(final Worker worker, final Health health,
+				final Conf conf) {
+			writer.execute(new Runnable() {
+				@Override
+				public void run() {
+					if (!worker.isCommitted(health)) {
+						Metrics.instance().workerStale.incrementAndGet();
+						if (Plugin.isLogOK()) {
+							Plugin.logOK("Project#confApply: stale: "
+									+ health.generation + " @ " + worker);
+						}
+						return;
+					}
+					if (Boolean.TRUE.equals(health.isPositive)) {
+						confCreateNow(worker.name(), conf);
+					} else {
+						confDeleteNow(worker.name(), conf);
+					}
+				}
+			});
+		}
+
+		/**
+		 * Run task on writer thread after all tasks queued so far.
+		 */
+		public void writerAfter(final Runnable task) {
+			writer.execute(task);
+		}
+
+		/**
+		 * Update master launch state on writer thread; create fileinstall.cfg
+		 * for held workers when launch starts or its configuration is gone.
+		 */
+		public void launchState(final boolean isConfigured,
+				final boolean isRunning) {
+			writer.execute(new Runnable() {
+				@Override
+				public void run() {
+					isLaunchConfigured = isConfigured;
+					isLaunchRunning = isRunning;
+					if (holdSet.isEmpty()) {
+						return;
+					}
+					ensureConf();
+					if (!isHold(conf())) {
+						holdFlush();
+					}
+				}
+			});
+		}
+
+		/**
+		 * Create fileinstall.cfg for all held workers in one pass.
+		 */
+		private void holdFlush() {
+			ensureConf();
+			final Conf conf = conf();
+			final List<String> list = new ArrayList<String>(holdSet);
+			holdSet.clear();
+			Plugin.logInfo("Project#holdFlush: " + name() + " size="
+					+ list.size());
+			for (final String worker : list) {
+				confCreateNow(worker, conf);
+			}
+		}
+
+		/**
+		 * Publish worker bundle jar assembled from its build output; skip
+		 * when the assembly did not change since last publish.
+		 */
+		private void bundleCreate(final String worker, final Conf conf,
+				final String[] values) {
+
+			final File file = ProjectUtil.file(project(),
+					conf.fileinstallBundlePath(values));
 
-			Plugin.logOK("Project#confDelete file: " + file);
+			final String key = file.getPath();
+
+			try {
+				final Assembly assembly = Assembly.of(ResourceUtil.project(
+						root(), worker));
+				final long generation = assembly.refresh();
+				final Long past = bundleMap.get(key);
+				if (file.exists() && past != null && past == generation) {
+					Metrics.instance().confSkips.incrementAndGet();
+					if (Plugin.isLogOK()) {
+						Plugin.logOK("Project#bundleCreate skip: " + file);
+					}
+					return;
+				}
+				final long timeStart = System.nanoTime();
+				assembly.publish(file);
+				final Metrics metrics = Metrics.instance();
+				metrics.confWriteTime.record(System.nanoTime() - timeStart);
+				metrics.confWrites.incrementAndGet();
+				bundleMap.put(key, generation);
+				if (Plugin.isLogOK()) {
+					Plugin.logOK("Project#bundleCreate file: " + file
+							+ " generation=" + generation);
+				}
+			} catch (final ZipException e) {
+				/** Output changed while being copied, build is still on. */
+				bundleMap.remove(key);
+				Plugin.logWarn("Project#bundleCreate retry: " + worker + " @ "
+						+ name() + ": " + e.getMessage());
+				publisher.publish(worker);
+			} catch (final Throwable e) {
+				bundleMap.remove(key);
+				Plugin.logErrr("Project#bundleCreate failure", e);
+			}
+		}
+
+		/**
+		 * Remove worker bundle jar.
+		 */
+		private void bundleDelete(final String worker, final Conf conf,
+				final String[] values) {
+
+			final File file = ProjectUtil.file(project(),
+					conf.fileinstallBundlePath(values));
+
+			if (file.delete()) {
+				Metrics.instance().confDeletes.incrementAndGet();
+			}
+			bundleMap.remove(file.getPath());
+
+			if (Plugin.isLogOK()) {
+				Plugin.logOK("Project#bundleDelete file: " + file);
+			}
+		}
+
+		/**
+		 * Record known fileinstall.cfg digests into snapshot.
+		 */
+		public void digestSave(final State state) {
+			for (final Map.Entry<String, String> entry : digestMap.entrySet()) {
+				state.digest(new File(entry.getKey()), entry.getValue());
+			}
+		}
+
+		/**
+		 * Use snapshot digests for files which did not change since.
+		 */
+		public void digestSeed(final State state) {
+			digestState = state;
 		}
 
 		/**
@@ -209,57 +610,338 @@ public class Project {
 	public static class Worker extends Project {
 
 		/**
-		 * Manifest presence detector.
+		 * Worker generation, advanced on build start and on tracked state
+		 * change.
+		 */
+		private final AtomicLong generation = new AtomicLong();
+
+		/**
+		 * Last accepted evaluation; swapped as a whole.
 		 */
-		private final ChangeDetector manifest = new ChangeDetector() {
-			@Override
-			Change next() {
-				return ProjectUtil.manifest(project()).//
-						exists() ? Change.POSITIVE : Change.NEGATIVE;
+		private final AtomicReference<Health> health = //
+		new AtomicReference<Health>(Health.NONE);
+
+		/**
+		 * Cached manifest path in the output folder, relative to the project;
+		 * reset on class path change.
+		 */
+		private volatile IPath manifestPath;
+
+		/**
+		 * Tracked manifest presence; null when unknown.
+		 */
+		private volatile Boolean manifestState;
+
+		/**
+		 * Ids of tracked error markers; null when unknown. Kept as ids, not
+		 * as a count, so a delta for a marker already seen by a scan does
+		 * not count twice.
+		 */
+		private volatile Set<Long> errorSet;
+
+		/**
+		 * Problem marker types which count as errors.
+		 */
+		private volatile String[] errorTypes;
+
+		public Worker(final IProject project, final String[] errorTypes) {
+			super(project);
+			this.errorTypes = errorTypes;
+		}
+
+		/**
+		 * Report tracked error marker count; scan only to seed, later build
+		 * markers are tracked from marker deltas.
+		 */
+		private int errorCount() {
+			final Set<Long> past = errorSet;
+			if (past != null) {
+				return past.size();
 			}
-		};
+			try {
+				final Set<Long> next = ProjectUtil.errorMarkers(project(),
+						errorTypes);
+				errorSet = next;
+				Plugin.logOK("Project#errorCount: scan: " + next.size()
+						+ " @ " + this);
+				return next.size();
+			} catch (final Throwable e) {
+				Plugin.logErrr("Project#errorCount: failure", e);
+				return 1;
+			}
+		}
 
 		/**
-		 * Build health detector.
+		 * Record tracked worker state into snapshot: manifest location and
+		 * presence, error count, and the stamps they were observed with.
 		 */
-		private final ChangeDetector severity = new ChangeDetector() {
-			@Override
-			Change next() {
-				return ProjectUtil.severity(project()) //
-				!= IMarker.SEVERITY_ERROR ? Change.POSITIVE : Change.NEGATIVE;
+		public void stateSave(final State state) {
+			final Set<Long> errors = errorSet;
+			final IPath path = manifestPath();
+			state.worker(name(), path.toPortableString(), stateStamp(path),
+					manifestState, errors == null ? -1 : errors.size());
+		}
+
+		/**
+		 * Cheap stamp of the snapshot entry: class path descriptor, which
+		 * defines the output folder, and manifest resource stamps; other
+		 * changes are reported by the saved state delta.
+		 */
+		private String stateStamp(final IPath manifest) {
+			final IProject project = project();
+			return project.getFile(CLASSPATH).getModificationStamp() + "/"
+					+ project.getFile(manifest).getModificationStamp();
+		}
+
+		/**
+		 * Seed tracked worker state from snapshot, avoid initial scans and
+		 * output folder lookup; caller excludes projects changed since the
+		 * snapshot was saved.
+		 * 
+		 * @return true if snapshot entry was used
+		 */
+		public boolean stateSeed(final State state, final boolean isErrorValid) {
+			final String text = state.workerPath(name());
+			if (text == null) {
+				return false;
+			}
+			final IPath path = Path.fromPortableString(text);
+			if (!state.hasWorker(name(), stateStamp(path))) {
+				return false;
 			}
-		};
+			if (manifestPath == null) {
+				manifestPath = path;
+			}
+			final Boolean manifest = state.workerManifest(name());
+			if (manifest != null && manifestState == null) {
+				manifestState = manifest;
+			}
+			/** Only error free state can be seeded, marker ids are unknown. */
+			final int errors = state.workerErrors(name());
+			if (errors == 0 && isErrorValid && errorSet == null) {
+				errorSet = Collections.newSetFromMap(//
+						new ConcurrentHashMap<Long, Boolean>());
+			}
+			return true;
+		}
 
-		public Worker(final IProject project) {
-			super(project);
+		/**
+		 * Change problem marker types; forces full scan on next use.
+		 */
+		public void errorReset(final String[] errorTypes) {
+			this.errorTypes = errorTypes;
+			errorSet = null;
+		}
+
+		/**
+		 * Track error markers from marker delta.
+		 * 
+		 * @return true if tracked error presence has changed
+		 */
+		public boolean errorUpdate(final IMarkerDelta delta) {
+
+			if (!ProjectUtil.isType(delta, errorTypes)) {
+				return false;
+			}
+
+			final Set<Long> errors = errorSet;
+			if (errors == null) {
+				/** Not seeded yet, next scan will see this marker. */
+				return false;
+			}
+
+			final boolean isError;
+			switch (delta.getKind()) {
+			case IResourceDelta.ADDED:
+				isError = ProjectUtil.isError(delta.getAttribute(
+						IMarker.SEVERITY, -1));
+				break;
+			case IResourceDelta.CHANGED:
+				isError = ProjectUtil.isError(delta.getMarker().getAttribute(
+						IMarker.SEVERITY, -1));
+				break;
+			default:
+				isError = false;
+				break;
+			}
+
+			final boolean past = errors.isEmpty();
+			if (isError) {
+				errors.add(delta.getId());
+			} else {
+				errors.remove(delta.getId());
+			}
+			final boolean next = errors.isEmpty();
+
+			if (past != next) {
+				generation.incrementAndGet();
+				return true;
+			}
+			return false;
 		}
 
 		/**
-		 * Verify last build result status.
+		 * Verify last accepted build result status.
 		 */
 		public boolean isBuildSuccess() {
-			return severity.isPositive;
+			return health.get().isBuildSuccess;
 		}
 
 		/**
-		 * Verify last build result status.
+		 * Verify last accepted manifest status.
 		 */
 		public boolean isManifestPresent() {
-			return manifest.isPositive;
+			return health.get().isManifestPresent;
 		}
 
 		/**
-		 * Update once, report manifest presence.
+		 * Verify last accepted health passed worker checks.
+		 */
+		public boolean isActive() {
+			return Boolean.TRUE.equals(health.get().isPositive);
+		}
+
+		/**
+		 * Report tracked error marker absence.
+		 */
+		public boolean isErrorFree() {
+			return errorCount() == 0;
+		}
+
+		/**
+		 * Report tracked manifest presence, seed from workspace tree once.
+		 */
+		public boolean manifestExists() {
+			Boolean state = manifestState;
+			if (state == null) {
+				state = project().getFile(manifestPath()).exists();
+				manifestState = state;
+				Plugin.logOK("Project#manifestExists: seed: " + state + " @ "
+						+ this);
+			}
+			return state;
+		}
+
+		/**
+		 * Cached manifest path, relative to the project.
+		 */
+		private IPath manifestPath() {
+			IPath path = manifestPath;
+			if (path == null) {
+				path = ProjectUtil.manifestPath(project());
+				manifestPath = path;
+			}
+			return path;
+		}
+
+		/**
+		 * Track manifest presence from project resource delta.
+		 * 
+		 * @return true if tracked presence has changed
+		 */
+		public boolean manifestUpdate(final IResourceDelta delta) {
+
+			if (delta.findMember(CLASSPATH) != null) {
+				manifestPath = null;
+				manifestState = null;
+				generation.incrementAndGet();
+				Plugin.logOK("Project#manifestUpdate: class path reset: "
+						+ this);
+				return true;
+			}
+
+			final IPath path = manifestPath;
+			if (path == null) {
+				return false;
+			}
+
+			final IResourceDelta member = delta.findMember(path);
+			if (member == null) {
+				return false;
+			}
+
+			final Boolean past = manifestState;
+			final Boolean next;
+			switch (member.getKind()) {
+			case IResourceDelta.ADDED:
+				next = Boolean.TRUE;
+				break;
+			case IResourceDelta.REMOVED:
+				next = Boolean.FALSE;
+				break;
+			default:
+				return false;
+			}
+
+			manifestState = next;
+			if (next.equals(past)) {
+				return false;
+			}
+			generation.incrementAndGet();
+			return true;
+		}
+
+		/**
+		 * Current worker generation.
+		 */
+		public long generation() {
+			return generation.get();
+		}
+
+		/**
+		 * Advance worker generation, making running evaluations stale.
+		 */
+		public long generationNext() {
+			return generation.incrementAndGet();
+		}
+
+		/**
+		 * Accept evaluation made for a generation, unless a newer one was
+		 * already accepted.
+		 * 
+		 * @return replaced health, or null when evaluation is stale
+		 */
+		public Health healthCommit(final Health next) {
+			while (true) {
+				final Health past = health.get();
+				if (next.generation < past.generation) {
+					return null;
+				}
+				if (health.compareAndSet(past, next)) {
+					return past;
+				}
+			}
+		}
+
+		/**
+		 * Verify health is still the last accepted one.
+		 */
+		public boolean isCommitted(final Health next) {
+			return health.get() == next;
+		}
+
+		/**
+		 * Report change of a tracked value from last accepted health.
+		 */
+		private Change change(final boolean past, final boolean next) {
+			if (health.get().isPositive != null && past == next) {
+				return Change.UNCHANGED;
+			}
+			return next ? Change.POSITIVE : Change.NEGATIVE;
+		}
+
+		/**
+		 * Report manifest presence change from last accepted health.
 		 */
 		public Change manifestChange() {
-			return manifest.change();
+			return change(isManifestPresent(), manifestExists());
 		}
 
 		/**
-		 * Update once, report severity change.
+		 * Report severity change from last accepted health.
 		 */
 		public Change severityChange() {
-			return severity.change();
+			return change(isBuildSuccess(), isErrorFree());
 		}
 
 	}
@@ -287,6 +969,13 @@ public class Project {
 		return project;
 	}
 
+	/**
+	 * Root of the workspace which owns the project.
+	 */
+	public IWorkspaceRoot root() {
+		return project.getWorkspace().getRoot();
+	}
+
 	@Override
 	public String toString() {
 		return project.toString();
@@ -0,0 +1,174 @@
+/**
+ * Copyright (C) 2010-2013 Andrei Pozolotin <Andrei.Pozolotin@gmail.com>
+ *
+ * All rights reserved. Licensed under the OSI BSD License.
+ *
+ * http://www.opensource.org/licenses/bsd-license.php
+ */
+package com.carrotgarden.eclipse.fileinstall;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.InputStream;
+import java.util.Map;
+import java.util.Properties;
+import java.util.TreeMap;
+
+import com.carrotgarden.eclipse.fileinstall.util.FileUtil;
+import com.carrotgarden.eclipse.fileinstall.util.PropertyUtil;
+
+/**
+ * Persisted plug-in state snapshot, used for warm restarts.
+ */
+public class State {
+
+	/** Snapshot file name in plug-in state location. */
+	public static final String FILE = "manager-state.properties";
+
+	/** Snapshot format version. */
+	public static final String VERSION = "2";
+
+	private static final String KEY_VERSION = "version";
+	private static final String KEY_MARKERS = "markers";
+	private static final String KEY_DIGEST = "digest.";
+	private static final String KEY_WORKER_STAMP = "worker.stamp.";
+	private static final String KEY_WORKER_PATH = "worker.path.";
+	private static final String KEY_WORKER_MANIFEST = "worker.manifest.";
+	private static final String KEY_WORKER_ERRORS = "worker.errors.";
+
+	/**
+	 * Load snapshot; empty on missing file or version mismatch.
+	 */
+	public static State load(final File file) {
+		final State state = new State();
+		if (!file.exists()) {
+			return state;
+		}
+		try {
+			final Properties props = new Properties();
+			final InputStream input = new FileInputStream(file);
+			try {
+				props.load(input);
+			} finally {
+				input.close();
+			}
+			if (!VERSION.equals(props.getProperty(KEY_VERSION))) {
+				return state;
+			}
+			for (final String key : props.stringPropertyNames()) {
+				state.map.put(key, props.getProperty(key));
+			}
+		} catch (final Throwable e) {
+			Plugin.logErrr("State#load: failure", e);
+		}
+		return state;
+	}
+
+	private final Map<String, String> map = new TreeMap<String, String>();
+
+	public State() {
+		map.put(KEY_VERSION, VERSION);
+	}
+
+	/**
+	 * Store snapshot atomically.
+	 */
+	public void save(final File file) throws Exception {
+		FileUtil.publishTextFile(file, PropertyUtil.render(null, map));
+	}
+
+	/**
+	 * Record digest of a fileinstall.cfg file with its current stamp.
+	 */
+	public void digest(final File file, final String digest) {
+		if (!file.exists()) {
+			return;
+		}
+		map.put(KEY_DIGEST + file.getPath(),
+				digest + "," + file.lastModified() + "," + file.length());
+	}
+
+	/**
+	 * Digest of a fileinstall.cfg file, if the file stamp still matches.
+	 */
+	public String digest(final File file) {
+		final String value = map.get(KEY_DIGEST + file.getPath());
+		if (value == null) {
+			return null;
+		}
+		final String[] part = value.split(",");
+		if (part.length != 3) {
+			return null;
+		}
+		if (!part[1].equals(String.valueOf(file.lastModified()))) {
+			return null;
+		}
+		if (!part[2].equals(String.valueOf(file.length()))) {
+			return null;
+		}
+		return part[0];
+	}
+
+	/**
+	 * Problem marker types used for worker error counts.
+	 */
+	public String markers() {
+		return map.get(KEY_MARKERS);
+	}
+
+	public void markers(final String markers) {
+		map.put(KEY_MARKERS, markers);
+	}
+
+	/**
+	 * Record worker check results with manifest path and worker state
+	 * stamp.
+	 */
+	public void worker(final String name, final String path,
+			final String stamp, final Boolean manifest, final int errors) {
+		map.put(KEY_WORKER_PATH + name, path);
+		map.put(KEY_WORKER_STAMP + name, stamp);
+		if (manifest != null) {
+			map.put(KEY_WORKER_MANIFEST + name, manifest.toString());
+		}
+		if (errors >= 0) {
+			map.put(KEY_WORKER_ERRORS + name, String.valueOf(errors));
+		}
+	}
+
+	/**
+	 * Verify worker entry is present and its stamp still matches.
+	 */
+	public boolean hasWorker(final String name, final String stamp) {
+		return stamp.equals(map.get(KEY_WORKER_STAMP + name));
+	}
+
+	/**
+	 * Recorded worker manifest path, relative to the project; null when
+	 * unknown.
+	 */
+	public String workerPath(final String name) {
+		return map.get(KEY_WORKER_PATH + name);
+	}
+
+	/**
+	 * Recorded worker manifest presence; null when unknown.
+	 */
+	public Boolean workerManifest(final String name) {
+		final String value = map.get(KEY_WORKER_MANIFEST + name);
+		return value == null ? null : Boolean.valueOf(value);
+	}
+
+	/**
+	 * Recorded worker error count; negative when unknown.
+	 */
+	public int workerErrors(final String name) {
+		final String value = map.get(KEY_WORKER_ERRORS + name);
+		try {
+			return value == null ? -1 : Integer.parseInt(value);
+		} catch (final NumberFormatException e) {
+			return -1;
+		}
+	}
+
+}
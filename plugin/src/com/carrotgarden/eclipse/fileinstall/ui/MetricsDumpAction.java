@@ -0,0 +1,35 @@
+/**
+ * Copyright (C) 2010-2013 Andrei Pozolotin <Andrei.Pozolotin@gmail.com>
+ *
+ * All rights reserved. Licensed under the OSI BSD License.
+ *
+ * http://www.opensource.org/licenses/bsd-license.php
+ */
+package com.carrotgarden.eclipse.fileinstall.ui;
+
+import org.eclipse.jface.action.IAction;
+import org.eclipse.jface.dialogs.MessageDialog;
+
+import com.carrotgarden.eclipse.fileinstall.Metrics;
+import com.carrotgarden.eclipse.fileinstall.Plugin;
+
+/**
+ * @see plugin.xml
+ */
+public class MetricsDumpAction extends BaseAction {
+
+	public MetricsDumpAction() {
+	}
+
+	@Override
+	public void run(final IAction action) {
+
+		final String text = Metrics.instance().dump();
+
+		Plugin.logInfo("Metrics:\n" + text);
+
+		MessageDialog.openInformation(null, "Fileinstall Metrics", text);
+
+	}
+
+}
@@ -32,7 +32,8 @@ public class NatureActivateAction extends BaseAction {
 
 		final IProject project = getProject();
 
-		JobUtil.schedule(new EclipseRunnable("Nature activate.") {
+		JobUtil.schedule(JobUtil.modifyRule(project), new EclipseRunnable(
+				"Nature activate.") {
 			@Override
 			public void doit(final IProgressMonitor monitor)
 					throws CoreException {
@@ -31,7 +31,8 @@ public class NatureDeactivateAction extends BaseAction {
 
 		final IProject project = getProject();
 
-		JobUtil.schedule(new EclipseRunnable("Nature deactivate.") {
+		JobUtil.schedule(JobUtil.modifyRule(project), new EclipseRunnable(
+				"Nature deactivate.") {
 			@Override
 			public void doit(final IProgressMonitor monitor)
 					throws CoreException {
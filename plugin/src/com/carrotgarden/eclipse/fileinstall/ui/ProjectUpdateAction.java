@@ -29,7 +29,8 @@ public class ProjectUpdateAction extends BaseAction {
 
 		final IProject project = getProject();
 
-		JobUtil.schedule(new EclipseRunnable("Project update.") {
+		JobUtil.schedule(JobUtil.projectRule(project), new EclipseRunnable(
+				"Project update.") {
 			@Override
 			public void doit(final IProgressMonitor monitor)
 					throws CoreException {
@@ -7,16 +7,18 @@
  */
 package com.carrotgarden.eclipse.fileinstall.util;
 
-import java.io.ByteArrayOutputStream;
 import java.io.File;
 import java.util.Map;
 import java.util.Map.Entry;
-import java.util.Properties;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 
+import org.eclipse.core.resources.IFile;
 import org.eclipse.core.resources.IProject;
+import org.eclipse.core.resources.IResource;
 
 import com.carrotgarden.eclipse.fileinstall.Conf;
-import com.carrotgarden.eclipse.fileinstall.Plugin;
 import com.typesafe.config.Config;
 import com.typesafe.config.ConfigFactory;
 import com.typesafe.config.ConfigRenderOptions;
@@ -37,6 +39,45 @@ public class ConfUtil {
 		public volatile int eclipseCheckIsWorkerBuildSuccess;
 		public volatile int eclipseCheckIsWorkerManifestPresent;
 
+		/**
+		 * Include check into the total.
+		 */
+		public void add(final Conf.Check check) {
+			update(check, +1);
+		}
+
+		/**
+		 * Exclude check from the total.
+		 */
+		public void remove(final Conf.Check check) {
+			update(check, -1);
+		}
+
+		/**
+		 * Reset the total.
+		 */
+		public void clear() {
+			eclipseCheckIsMasterDeployPresent = 0;
+			eclipseCheckIsMasterLaunchRunning = 0;
+			eclipseCheckIsWorkerBuildSuccess = 0;
+			eclipseCheckIsWorkerManifestPresent = 0;
+		}
+
+		private void update(final Conf.Check check, final int delta) {
+			if (check.eclipseCheckIsMasterDeployPresent()) {
+				eclipseCheckIsMasterDeployPresent += delta;
+			}
+			if (check.eclipseCheckIsMasterLaunchRunning()) {
+				eclipseCheckIsMasterLaunchRunning += delta;
+			}
+			if (check.eclipseCheckIsWorkerBuildSuccess()) {
+				eclipseCheckIsWorkerBuildSuccess += delta;
+			}
+			if (check.eclipseCheckIsWorkerManifestPresent()) {
+				eclipseCheckIsWorkerManifestPresent += delta;
+			}
+		}
+
 		@Override
 		public boolean eclipseCheckIsMasterDeployPresent() {
 			return eclipseCheckIsMasterDeployPresent > 0;
@@ -69,50 +110,160 @@ public class ConfUtil {
 			.setJson(false);
 
 	/**
-	 * Unresolved master configuration with plug-in fall-back.
+	 * Merged configuration with the file stamps it was parsed from.
+	 */
+	private static class ConfigStamp {
+
+		final long stamp;
+		final long modified;
+		final long length;
+		final Config config;
+
+		ConfigStamp(final long stamp, final long modified, final long length,
+				final Config config) {
+			this.stamp = stamp;
+			this.modified = modified;
+			this.length = length;
+			this.config = config;
+		}
+
+		boolean isCurrent(final long stamp, final File file) {
+			return this.stamp == stamp && modified == file.lastModified()
+					&& length == file.length();
+		}
+
+	}
+
+	/**
+	 * Merged configuration cache, by project configuration file path.
+	 */
+	private static final ConcurrentMap<String, ConfigStamp> //
+	configCache = new ConcurrentHashMap<String, ConfigStamp>();
+
+	/**
+	 * Shared configuration instances, by rendered content digest.
+	 */
+	private static final ConcurrentMap<String, Config> //
+	configShare = new ConcurrentHashMap<String, Config>();
+
+	/**
+	 * Plug-in defaults, parsed once per bundle life time.
+	 */
+	private static volatile Config configPlug;
+
+	/**
+	 * Resolved master configuration with plug-in fall-back.
+	 * <p>
+	 * Result is cached until the resource modification stamp changes, which
+	 * happens on every workspace change of the file, regardless of file
+	 * system time resolution.
 	 */
 	public static Config config(final IProject master) {
-		return configProj(master).withFallback(configPlug());
+		final IFile file = master.getFile(Conf.PROJ_PATH);
+		return config(file.getLocation().toFile(), file.getModificationStamp());
+	}
+
+	/**
+	 * Resolved configuration from a file with plug-in fall-back; does not
+	 * need a workspace, so it can be exercised in isolation.
+	 * <p>
+	 * Result is cached until file modification time or size changes.
+	 */
+	public static Config config(final File file) {
+		return config(file, IResource.NULL_STAMP);
+	}
+
+	/**
+	 * Resolved configuration, cached by file and resource stamps; equal
+	 * configurations from different files share one instance.
+	 */
+	private static Config config(final File file, final long stamp) {
+		final String key = file.getAbsolutePath();
+		final ConfigStamp past = configCache.get(key);
+		if (past != null && past.isCurrent(stamp, file)) {
+			return past.config;
+		}
+		/** Stamp before parse: a concurrent edit must invalidate the entry. */
+		final long modified = file.lastModified();
+		final long length = file.length();
+		final ConfigStamp next = new ConfigStamp(stamp, modified, length,
+				configShared(configFile(file).withFallback(configPlug())
+						.resolve()));
+		configCache.put(key, next);
+		return next.config;
 	}
 
+	/**
+	 * Reuse instance of an equal configuration, if any.
+	 */
+	private static Config configShared(final Config config) {
+		final String digest = FileUtil.digest(config.root().render(
+				ConfigRenderOptions.concise()));
+		final Config past = configShare.putIfAbsent(digest, config);
+		return past == null ? config : past;
+	}
+
+	/**
+	 * Discard cached configurations.
+	 */
+	public static void configClear() {
+		configCache.clear();
+		configShare.clear();
+		configPlug = null;
+	}
+
+	/**
+	 * Unresolved configuration from a file.
+	 */
+	public static Config configFile(final File file) {
+		return ConfigFactory.parseFile(file);
+	}
+
+	/**
+	 * Unresolved plug-in defaults, parsed once.
+	 */
 	public static Config configPlug() {
-		return ConfigFactory.parseResources(ConfUtil.class.getClassLoader(),
-				Conf.KLAZ_PATH);
+		Config config = configPlug;
+		if (config == null) {
+			config = ConfigFactory.parseResources(ConfUtil.class,
+					Conf.KLAZ_PATH);
+			configPlug = config;
+		}
+		return config;
 	}
 
 	public static Config configProj(final IProject master) {
-		final File file = ProjectUtil.file(master, Conf.PROJ_PATH);
-		return ConfigFactory.parseFile(file);
+		return configFile(ProjectUtil.file(master, Conf.PROJ_PATH));
 	}
 
 	/**
-	 * Render config as flat key=value properties text.
+	 * Header of rendered properties text.
+	 */
+	public static final String FLAT_COMMENT = "Auto generated, do not change.";
+
+	/**
+	 * Render config as flat key=value properties text; output is sorted and
+	 * carries no time stamp.
 	 */
 	public static String flatFile(final Config config) {
+		final StringBuilder text = new StringBuilder(1024);
+		flatFile(config, text);
+		return text.toString();
+	}
+
+	/**
+	 * Render config as flat key=value properties text into provided buffer.
+	 */
+	public static void flatFile(final Config config, final StringBuilder text) {
 
-		final Properties props = new Properties();
+		final Map<String, String> props = new TreeMap<String, String>();
 
 		for (final Entry<String, ConfigValue> entry : config.entrySet()) {
 			props.put(entry.getKey(), entry.getValue().unwrapped().toString());
 		}
 
-		final ByteArrayOutputStream output = new ByteArrayOutputStream();
-
-		try {
-			props.store(output, "Auto generated, do not change.");
-		} catch (final Throwable e) {
-			Plugin.logErrr("ConfUtil#flatFile: failure", e);
-		}
-
-		return output.toString();
-
-	}
+		PropertyUtil.render(FLAT_COMMENT, props, text);
 
-	public static String replace(String text, final Map<String, String> map) {
-		for (final Map.Entry<String, String> entry : map.entrySet()) {
-			text = text.replace(entry.getKey(), entry.getValue());
-		}
-		return text;
 	}
 
 }
@@ -131,8 +131,16 @@ public class ConsoleUtil {
 		return new Console(in, out, err);
 	}
 
-	static final SimpleDateFormat TIME_FORM = //
-	new SimpleDateFormat("HH:mm:ss.SSS");
+	/**
+	 * Time stamp format; per thread, since format is not thread safe.
+	 */
+	static final ThreadLocal<SimpleDateFormat> TIME_FORM = //
+	new ThreadLocal<SimpleDateFormat>() {
+		@Override
+		protected SimpleDateFormat initialValue() {
+			return new SimpleDateFormat("HH:mm:ss.SSS");
+		}
+	};
 
 	/**
 	 * Eclipse problem severity parser.
@@ -187,7 +195,7 @@ public class ConsoleUtil {
 	 */
 	public static String render(String format, final IStatus status) {
 
-		final String time = TIME_FORM.format(new Date());
+		final String time = TIME_FORM.get().format(new Date());
 		final String severity = Severity.from(status.getSeverity()).name();
 		final int code = status.getCode();
 		final String message = status.getMessage();
@@ -201,4 +209,50 @@ public class ConsoleUtil {
 
 	}
 
+	/**
+	 * Render eclipse status into a buffer, same layout as
+	 * {@link #render(IStatus)} without format parsing.
+	 */
+	public static void render(final StringBuilder text, final IStatus status,
+			final long time) {
+
+		final int start = text.length();
+		text.append(TIME_FORM.get().format(new Date(time)));
+		pad(text, start, 12, true);
+		text.append(' ');
+
+		final int severity = text.length();
+		text.append(Severity.from(status.getSeverity()).name());
+		pad(text, severity, 4, false);
+		text.append(' ');
+
+		final int code = text.length();
+		text.append(status.getCode());
+		pad(text, code, 2, false);
+		text.append(' ');
+
+		text.append(status.getMessage());
+
+		final Throwable cause = status.getException();
+		if (cause != null) {
+			text.append(" [").append(cause).append(']');
+		}
+
+	}
+
+	/**
+	 * Pad text appended since start to the width.
+	 */
+	private static void pad(final StringBuilder text, final int start,
+			final int width, final boolean isLeft) {
+		final int size = text.length() - start;
+		for (int index = size; index < width; index++) {
+			if (isLeft) {
+				text.insert(start, ' ');
+			} else {
+				text.append(' ');
+			}
+		}
+	}
+
 }
@@ -11,6 +11,7 @@
 package com.carrotgarden.eclipse.fileinstall.util;
 
 import java.lang.reflect.InvocationTargetException;
+import java.util.concurrent.TimeUnit;
 
 import org.eclipse.core.resources.WorkspaceJob;
 import org.eclipse.core.runtime.CoreException;
@@ -18,9 +19,13 @@ import org.eclipse.core.runtime.IProgressMonitor;
 import org.eclipse.core.runtime.IStatus;
 import org.eclipse.core.runtime.OperationCanceledException;
 import org.eclipse.core.runtime.Status;
+import org.eclipse.core.runtime.jobs.IJobChangeEvent;
 import org.eclipse.core.runtime.jobs.Job;
+import org.eclipse.core.runtime.jobs.JobChangeAdapter;
 import org.eclipse.jface.operation.IRunnableWithProgress;
 
+import com.carrotgarden.eclipse.fileinstall.Metrics;
+
 /**
  * Wrapper for long running operations, provides a way to turn the operation into
  * different types of "runnables" that exist within eclipse.
@@ -42,7 +47,7 @@ public abstract class EclipseRunnable implements IRunnableWithProgress {
 	public abstract void doit(IProgressMonitor mon) throws Exception;
 
 	public Job asJob() {
-		return new Job(jobName) {
+		final Job job = new Job(jobName) {
 			@Override
 			protected IStatus run(IProgressMonitor monitor) {
 				try {
@@ -58,6 +63,30 @@ public abstract class EclipseRunnable implements IRunnableWithProgress {
 				return null;
 			}
 		};
+		job.addJobChangeListener(new JobWaitListener());
+		return job;
+	}
+
+	/**
+	 * Record time from job schedule to job run.
+	 */
+	private static class JobWaitListener extends JobChangeAdapter {
+		private volatile long timeScheduled;
+
+		@Override
+		public void scheduled(IJobChangeEvent event) {
+			/** Exclude requested delay, measure rule and pool wait only. */
+			timeScheduled = System.nanoTime()
+					+ TimeUnit.MILLISECONDS.toNanos(event.getDelay());
+		}
+
+		@Override
+		public void running(IJobChangeEvent event) {
+			final long time = timeScheduled;
+			if (time != 0) {
+				Metrics.instance().jobWaitTime.record(System.nanoTime() - time);
+			}
+		}
 	}
 
 	public WorkspaceJob asWorkspaceJob() {
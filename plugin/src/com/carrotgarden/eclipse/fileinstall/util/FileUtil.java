@@ -9,14 +9,20 @@ package com.carrotgarden.eclipse.fileinstall.util;
 
 import java.io.BufferedInputStream;
 import java.io.BufferedOutputStream;
+import java.io.ByteArrayInputStream;
 import java.io.File;
 import java.io.FileInputStream;
 import java.io.FileOutputStream;
+import java.io.IOException;
 import java.io.InputStream;
 import java.io.InputStreamReader;
 import java.io.OutputStream;
 import java.io.OutputStreamWriter;
 import java.nio.charset.Charset;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+
+import org.apache.commons.io.IOUtils;
 
 /**
  * File access helper.
@@ -110,6 +116,112 @@ public class FileUtil {
 
 	}
 
+	/**
+	 * Publish UTF-8 text into file path atomically.
+	 * 
+	 * @see #publishStream(File, InputStream)
+	 */
+	public static void publishTextFile(final File file, final String text)
+			throws Exception {
+		publishStream(file, new ByteArrayInputStream(text.getBytes(UTF_8)));
+	}
+
+	/**
+	 * Producer of published file content.
+	 */
+	public interface Content {
+
+		/**
+		 * Write complete content; output is closed by the caller.
+		 */
+		void write(OutputStream output) throws Exception;
+
+	}
+
+	/**
+	 * Publish stream content into file path atomically.
+	 * 
+	 * @see #publish(File, Content)
+	 */
+	public static void publishStream(final File file, final InputStream input)
+			throws Exception {
+		publish(file, new Content() {
+			@Override
+			public void write(final OutputStream output) throws Exception {
+				IOUtils.copy(input, output);
+			}
+		});
+	}
+
+	/**
+	 * Publish content into file path atomically: write a sibling temporary
+	 * file, sync it to disk, then rename it over the target, so file
+	 * watchers never observe partial content.
+	 */
+	public static void publish(final File file, final Content content)
+			throws Exception {
+
+		final File folder = file.getParentFile();
+
+		if (!folder.exists()) {
+			folder.mkdirs();
+		}
+
+		final File temp = File.createTempFile("." + file.getName() + ".",
+				".tmp", folder);
+
+		try {
+
+			final FileOutputStream output = new FileOutputStream(temp);
+			try {
+				final BufferedOutputStream buffer = new BufferedOutputStream(
+						output, 64 * 1024);
+				content.write(buffer);
+				buffer.flush();
+				output.getFD().sync();
+			} finally {
+				output.close();
+			}
+
+			if (temp.renameTo(file)) {
+				return;
+			}
+
+			/** Platforms which can not rename over existing file. */
+			file.delete();
+
+			if (temp.renameTo(file)) {
+				return;
+			}
+
+			throw new IOException("Rename failure: " + temp + " -> " + file);
+
+		} finally {
+			if (temp.exists()) {
+				temp.delete();
+			}
+		}
+
+	}
+
+	/**
+	 * SHA-1 digest of UTF-8 text, as hex string.
+	 */
+	public static String digest(final String text) {
+		try {
+			final MessageDigest digest = MessageDigest.getInstance("SHA-1");
+			final byte[] array = digest.digest(text.getBytes(UTF_8));
+			final StringBuilder hex = new StringBuilder(array.length * 2);
+			for (final byte value : array) {
+				hex.append(Character.forDigit((value >> 4) & 0xF, 16));
+				hex.append(Character.forDigit(value & 0xF, 16));
+			}
+			return hex.toString();
+		} catch (final NoSuchAlgorithmException e) {
+			throw new IllegalStateException(e);
+		}
+	}
+
 	/**
 	 * Deletes all files and subdirectories under dir. Returns true if all
 	 * deletions were successful. If a deletion fails, the method stops
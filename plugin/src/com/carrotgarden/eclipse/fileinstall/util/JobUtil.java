@@ -10,6 +10,10 @@
  *******************************************************************************/
 package com.carrotgarden.eclipse.fileinstall.util;
 
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import org.eclipse.core.resources.IProject;
 import org.eclipse.core.resources.ResourcesPlugin;
 import org.eclipse.core.runtime.IProgressMonitor;
 import org.eclipse.core.runtime.OperationCanceledException;
@@ -80,9 +84,36 @@ public class JobUtil {
 	}
 
 	private static void schedule(final Job job, final ISchedulingRule rule) {
+		schedule(job, rule, 0);
+	}
+
+	private static void schedule(final Job job, final ISchedulingRule rule,
+			final long delay) {
+		prepare(job, rule);
+		job.schedule(delay);
+	}
+
+	/**
+	 * Assign job priority and rule once, while the job is not scheduled;
+	 * {@link Job#setRule} rejects jobs which are waiting, sleeping or
+	 * running.
+	 */
+	public static Job prepare(final Job job, final ISchedulingRule rule) {
 		job.setPriority(Job.BUILD);
 		job.setRule(rule);
-		job.schedule();
+		return job;
+	}
+
+	/**
+	 * Schedule prepared job after a delay. A job which is still waiting or
+	 * sleeping is re-scheduled with the new delay, so repeated calls postpone
+	 * the job until calls stop for the duration of the delay; a running job
+	 * runs once more after the delay.
+	 * 
+	 * @see #prepare(Job, ISchedulingRule)
+	 */
+	public static void reschedule(final Job job, final long delay) {
+		job.schedule(delay);
 	}
 
 	private static void schedule(final Job job) {
@@ -123,6 +154,36 @@ public class JobUtil {
 		};
 	}
 
+	/**
+	 * Per-project light rules, one instance per project name.
+	 */
+	private static final ConcurrentMap<String, ISchedulingRule> PROJECT_RULES = //
+	new ConcurrentHashMap<String, ISchedulingRule>();
+
+	/**
+	 * Light rule dedicated to a project: jobs touching files of the same
+	 * master or worker serialize on it, while jobs for other projects and
+	 * workspace builds run concurrently.
+	 */
+	public static ISchedulingRule projectRule(final IProject project) {
+		final String name = project.getName();
+		final ISchedulingRule rule = PROJECT_RULES.get(name);
+		if (rule != null) {
+			return rule;
+		}
+		PROJECT_RULES.putIfAbsent(name, lightRule("PROJECT_RULE:" + name));
+		return PROJECT_RULES.get(name);
+	}
+
+	/**
+	 * Rule for changes of project description, such as natures: project
+	 * modify rule from workspace, augmented with the project light rule.
+	 */
+	public static ISchedulingRule modifyRule(final IProject project) {
+		return MultiRule.combine(ResourcesPlugin.getWorkspace()
+				.getRuleFactory().modifyRule(project), projectRule(project));
+	}
+
 	/**
 	 * Value used to indicate we don't want to use a scheduling rule at all.
 	 * GradleRunnable's scheduled with this 'rule' are completely unconstrained
@@ -0,0 +1,121 @@
+/**
+ * Copyright (C) 2010-2013 Andrei Pozolotin <Andrei.Pozolotin@gmail.com>
+ *
+ * All rights reserved. Licensed under the OSI BSD License.
+ *
+ * http://www.opensource.org/licenses/bsd-license.php
+ */
+package com.carrotgarden.eclipse.fileinstall.util;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+import org.eclipse.core.runtime.IStatus;
+
+/**
+ * Bounded lock-free log record queue: many producers, single consumer.
+ * <p>
+ * Producers never block: when the ring is full the record is dropped and
+ * counted.
+ */
+public class LogRing {
+
+	/**
+	 * Log record with creation time.
+	 */
+	public static class Entry {
+
+		public final IStatus status;
+		public final long time;
+
+		Entry(final IStatus status, final long time) {
+			this.status = status;
+			this.time = time;
+		}
+
+	}
+
+	private final AtomicReferenceArray<Entry> slotArray;
+
+	private final int mask;
+
+	/**
+	 * Next slot to claim by producers.
+	 */
+	private final AtomicLong tail = new AtomicLong();
+
+	/**
+	 * Next slot to read by consumer.
+	 */
+	private volatile long head;
+
+	/**
+	 * Records dropped on full ring.
+	 */
+	private final AtomicLong dropCount = new AtomicLong();
+
+	/**
+	 * @param capacity
+	 *            rounded up to power of two
+	 */
+	public LogRing(final int capacity) {
+		int size = 1;
+		while (size < capacity) {
+			size <<= 1;
+		}
+		slotArray = new AtomicReferenceArray<Entry>(size);
+		mask = size - 1;
+	}
+
+	/**
+	 * Count of records dropped so far.
+	 */
+	public long dropCount() {
+		return dropCount.get();
+	}
+
+	/**
+	 * Verify if no records are pending.
+	 */
+	public boolean isEmpty() {
+		return head == tail.get();
+	}
+
+	/**
+	 * Enqueue record from any thread.
+	 *
+	 * @return false if ring is full and record was dropped
+	 */
+	public boolean offer(final IStatus status) {
+		final Entry entry = new Entry(status, System.currentTimeMillis());
+		while (true) {
+			final long index = tail.get();
+			if (index - head >= slotArray.length()) {
+				dropCount.incrementAndGet();
+				return false;
+			}
+			if (tail.compareAndSet(index, index + 1)) {
+				slotArray.set((int) (index & mask), entry);
+				return true;
+			}
+		}
+	}
+
+	/**
+	 * Dequeue record; consumer thread only.
+	 *
+	 * @return null if no published record is available
+	 */
+	public Entry poll() {
+		final long index = head;
+		final int slot = (int) (index & mask);
+		final Entry entry = slotArray.get(slot);
+		if (entry == null) {
+			return null;
+		}
+		slotArray.set(slot, null);
+		head = index + 1;
+		return entry;
+	}
+
+}
@@ -8,16 +8,18 @@
 package com.carrotgarden.eclipse.fileinstall.util;
 
 import java.io.File;
-import java.io.FileOutputStream;
 import java.io.InputStream;
-import java.io.OutputStream;
+import java.util.Collections;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 
-import org.apache.commons.io.IOUtils;
-import org.eclipse.core.resources.IFile;
 import org.eclipse.core.resources.IMarker;
+import org.eclipse.core.resources.IMarkerDelta;
 import org.eclipse.core.resources.IProject;
 import org.eclipse.core.resources.IResource;
+import org.eclipse.core.runtime.CoreException;
 import org.eclipse.core.runtime.IPath;
+import org.eclipse.core.runtime.Path;
 import org.eclipse.jdt.core.IJavaProject;
 import org.eclipse.jdt.core.JavaCore;
 
@@ -43,17 +45,12 @@ public class ProjectUtil {
 
 		final File target = file(project, targetPath);
 
-		if (!target.exists()) {
-			target.getParentFile().mkdirs();
+		try {
+			FileUtil.publishStream(target, input);
+		} finally {
+			input.close();
 		}
 
-		final OutputStream output = new FileOutputStream(target);
-
-		IOUtils.copy(input, output);
-
-		input.close();
-		output.close();
-
 	}
 
 	/**
@@ -77,20 +74,42 @@ public class ProjectUtil {
 	}
 
 	/**
-	 * Report project problem severity.
+	 * Collect ids of project error markers of given types, including sub
+	 * types.
 	 */
-	public static int severity(final IProject project) {
-		try {
-			final int severity = project.findMaxProblemSeverity(
-					IMarker.PROBLEM, true, IResource.DEPTH_INFINITE);
-			// Plugin.logInfo("ProjectUtil#severity = " + severity + " @ "
-			// + project);
-			return severity;
-		} catch (final Throwable e) {
-			Plugin.logErrr("ProjectUtil#severity failure", e);
-			return IMarker.SEVERITY_ERROR;
+	public static Set<Long> errorMarkers(final IProject project,
+			final String[] types) throws CoreException {
+		final Set<Long> idSet = Collections
+				.newSetFromMap(new ConcurrentHashMap<Long, Boolean>());
+		for (final String type : types) {
+			final IMarker[] markerArray = project.findMarkers(type, true,
+					IResource.DEPTH_INFINITE);
+			for (final IMarker marker : markerArray) {
+				if (isError(marker.getAttribute(IMarker.SEVERITY, -1))) {
+					idSet.add(marker.getId());
+				}
+			}
 		}
+		return idSet;
+	}
+
+	/**
+	 * Verify if marker severity is an error.
+	 */
+	public static boolean isError(final int severity) {
+		return severity == IMarker.SEVERITY_ERROR;
+	}
 
+	/**
+	 * Verify if marker is of any of given types, including sub types.
+	 */
+	public static boolean isType(final IMarkerDelta delta, final String[] types) {
+		for (final String type : types) {
+			if (delta.isSubtypeOf(type)) {
+				return true;
+			}
+		}
+		return false;
 	}
 
 	/**
@@ -99,6 +118,12 @@ public class ProjectUtil {
 	public static final String MANIFEST_FILE = //
 	"MANIFEST.MF";
 
+	/**
+	 * Java project class path descriptor file.
+	 */
+	public static final String CLASSPATH_FILE = //
+	".classpath";
+
 	/**
 	 * Manifest location on class path.
 	 */
@@ -106,45 +131,36 @@ public class ProjectUtil {
 	"META-INF" + "/" + MANIFEST_FILE;
 
 	/**
-	 * Location of build manifest in the maven project.
+	 * Location of build output in the maven project.
 	 */
-	public static final String MANIFEST_MAVEN = //
-	"target/classes" + "/" + MANIFEST_PATH;
+	public static final String OUTPUT_MAVEN = "target/classes";
 
 	/**
-	 * Report project manifest file; can be missing.
+	 * Discover project manifest path, relative to the project.
 	 */
-	public static File manifest(final IProject project) {
-		final File file = manifestDiscover(project);
-		Plugin.logOK("ProjectUtil#manifest: file: " + file);
-		return file;
+	public static IPath manifestPath(final IProject project) {
+		return outputPath(project).append(MANIFEST_PATH);
 	}
 
 	/**
-	 * Discover project manifest from multiple locations.
+	 * Discover project build output folder, relative to the project; prefer
+	 * java project provided by the project adapter.
 	 */
-	private static File manifestDiscover(final IProject project) {
+	public static IPath outputPath(final IProject project) {
 		if (NatureUtil.hasJavaNature(project)) {
 			try {
-				final IJavaProject java = JavaCore.create(project);
-				final IPath output = java.getOutputLocation().makeRelativeTo(
+				IJavaProject java = (IJavaProject) project
+						.getAdapter(IJavaProject.class);
+				if (java == null) {
+					java = JavaCore.create(project);
+				}
+				return java.getOutputLocation().makeRelativeTo(
 						project.getFullPath());
-				final IFile manifest = project.getFolder(output).getFile(
-						MANIFEST_PATH);
-				return manifest.getLocation().toFile();
 			} catch (final Throwable e) {
-				Plugin.logErrr("ProjectUtil#manifest: failure", e);
-				return manifestDefault(project);
+				Plugin.logErrr("ProjectUtil#outputPath: failure", e);
 			}
 		}
-		return manifestDefault(project);
-	}
-
-	/**
-	 * Defautl manifest location.
-	 */
-	private static File manifestDefault(final IProject project) {
-		return file(project, MANIFEST_MAVEN);
+		return new Path(OUTPUT_MAVEN);
 	}
 
 }
@@ -0,0 +1,118 @@
+/**
+ * Copyright (C) 2010-2013 Andrei Pozolotin <Andrei.Pozolotin@gmail.com>
+ *
+ * All rights reserved. Licensed under the OSI BSD License.
+ *
+ * http://www.opensource.org/licenses/bsd-license.php
+ */
+package com.carrotgarden.eclipse.fileinstall.util;
+
+import java.util.Map;
+import java.util.SortedMap;
+import java.util.TreeMap;
+
+/**
+ * Deterministic properties file renderer.
+ * <p>
+ * Produces the same text as {@link java.util.Properties#store} would parse,
+ * but with sorted keys, fixed line separator and no time stamp, so equal
+ * content always renders into equal bytes.
+ */
+public class PropertyUtil {
+
+	/**
+	 * Fixed line separator.
+	 */
+	public static final char EOL = '\n';
+
+	private static final char[] HEX = "0123456789ABCDEF".toCharArray();
+
+	/**
+	 * Render properties into a new text.
+	 */
+	public static String render(final String comment,
+			final Map<String, String> props) {
+		final StringBuilder text = new StringBuilder(1024);
+		render(comment, props, text);
+		return text.toString();
+	}
+
+	/**
+	 * Render properties into provided buffer, sorted by key.
+	 */
+	public static void render(final String comment,
+			final Map<String, String> props, final StringBuilder text) {
+
+		if (comment != null) {
+			text.append('#').append(comment).append(EOL);
+		}
+
+		final SortedMap<String, String> sorted = props instanceof SortedMap ? //
+		(SortedMap<String, String>) props
+				: new TreeMap<String, String>(props);
+
+		for (final Map.Entry<String, String> entry : sorted.entrySet()) {
+			escape(entry.getKey(), true, text);
+			text.append('=');
+			escape(entry.getValue(), false, text);
+			text.append(EOL);
+		}
+
+	}
+
+	/**
+	 * Escape key or value the way {@link java.util.Properties} expects.
+	 */
+	private static void escape(final String source, final boolean isKey,
+			final StringBuilder text) {
+
+		final int size = source.length();
+
+		for (int index = 0; index < size; index++) {
+
+			final char c = source.charAt(index);
+
+			switch (c) {
+			case ' ':
+				if (index == 0 || isKey) {
+					text.append('\\');
+				}
+				text.append(' ');
+				break;
+			case '\t':
+				text.append("\\t");
+				break;
+			case '\n':
+				text.append("\\n");
+				break;
+			case '\r':
+				text.append("\\r");
+				break;
+			case '\f':
+				text.append("\\f");
+				break;
+			case '\\':
+			case '=':
+			case ':':
+			case '#':
+			case '!':
+				text.append('\\').append(c);
+				break;
+			default:
+				if (c < 0x0020 || c > 0x007e) {
+					text.append("\\u");
+					text.append(HEX[(c >> 12) & 0xF]);
+					text.append(HEX[(c >> 8) & 0xF]);
+					text.append(HEX[(c >> 4) & 0xF]);
+					text.append(HEX[c & 0xF]);
+				} else {
+					text.append(c);
+				}
+				break;
+			}
+
+		}
+
+	}
+
+}
@@ -9,7 +9,6 @@ package com.carrotgarden.eclipse.fileinstall.util;
 
 import org.eclipse.core.resources.IProject;
 import org.eclipse.core.resources.IWorkspaceRoot;
-import org.eclipse.core.resources.ResourcesPlugin;
 
 /**
  * Eclipse resource helper.
@@ -19,43 +18,40 @@ public class ResourceUtil {
 	/**
 	 * Workspace path.
 	 */
-	public static String workspacePath() {
-		return workspaceRoot().getLocation().toFile().getAbsolutePath();
-	}
-
-	/**
-	 * Workspace root.
-	 */
-	public static IWorkspaceRoot workspaceRoot() {
-		return ResourcesPlugin.getWorkspace().getRoot();
+	public static String workspacePath(final IWorkspaceRoot root) {
+		return root.getLocation().toFile().getAbsolutePath();
 	}
 
 	/**
 	 * Project handle.
 	 */
-	public static IProject project(final String name) {
-		return workspaceRoot().getProject(name);
+	public static IProject project(final IWorkspaceRoot root,
+			final String name) {
+		return root.getProject(name);
 	}
 
 	/**
 	 * Project path.
 	 */
-	public static String projectPath(final String name) {
-		return project(name).getLocation().toFile().getAbsolutePath();
+	public static String projectPath(final IWorkspaceRoot root,
+			final String name) {
+		return project(root, name).getLocation().toFile().getAbsolutePath();
 	}
 
 	/**
 	 * Verify if project exists.
 	 */
-	public static boolean hasProject(final String name) {
-		return project(name).exists();
+	public static boolean hasProject(final IWorkspaceRoot root,
+			final String name) {
+		return project(root, name).exists();
 	}
 
 	/**
 	 * Verify if project is open.
 	 */
-	public static boolean hasProjectOpen(final String name) {
-		final IProject project = project(name);
+	public static boolean hasProjectOpen(final IWorkspaceRoot root,
+			final String name) {
+		final IProject project = project(root, name);
 		return project.exists() && project.isOpen();
 	}
 
@@ -0,0 +1,114 @@
+/**
+ * Copyright (C) 2010-2013 Andrei Pozolotin <Andrei.Pozolotin@gmail.com>
+ *
+ * All rights reserved. Licensed under the OSI BSD License.
+ *
+ * http://www.opensource.org/licenses/bsd-license.php
+ */
+package com.carrotgarden.eclipse.fileinstall.util;
+
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import com.carrotgarden.eclipse.fileinstall.Plugin;
+
+/**
+ * Single writer task queue on top of a shared executor.
+ * <p>
+ * Tasks submitted to one instance run one at a time in submission order;
+ * tasks of different instances run concurrently on the shared executor.
+ */
+public class SerialExecutor implements Executor {
+
+	/**
+	 * Maximum tasks to run in one turn before yielding the pool thread.
+	 */
+	private static final int TURN_LIMIT = 16;
+
+	/**
+	 * Make shared bounded pool of daemon threads, which expire when idle.
+	 */
+	public static Executor pool(final String name, final int size) {
+		final AtomicInteger count = new AtomicInteger();
+		final ThreadPoolExecutor executor = new ThreadPoolExecutor(size,
+				size, 10, TimeUnit.SECONDS,
+				new LinkedBlockingQueue<Runnable>(), new ThreadFactory() {
+					@Override
+					public Thread newThread(final Runnable task) {
+						final Thread thread = new Thread(task, name + "-"
+								+ count.incrementAndGet());
+						thread.setDaemon(true);
+						return thread;
+					}
+				});
+		executor.allowCoreThreadTimeOut(true);
+		return executor;
+	}
+
+	private final Executor executor;
+
+	private final Queue<Runnable> //
+	taskQueue = new ConcurrentLinkedQueue<Runnable>();
+
+	/**
+	 * Queue drain is submitted or running.
+	 */
+	private final AtomicBoolean isActive = new AtomicBoolean();
+
+	private final Runnable drain = new Runnable() {
+		@Override
+		public void run() {
+			try {
+				for (int turn = 0; turn < TURN_LIMIT; turn++) {
+					final Runnable task = taskQueue.poll();
+					if (task == null) {
+						break;
+					}
+					try {
+						task.run();
+					} catch (final Throwable e) {
+						Plugin.logErrr("SerialExecutor#run: failure", e);
+					}
+				}
+			} finally {
+				isActive.set(false);
+				schedule();
+			}
+		}
+	};
+
+	public SerialExecutor(final Executor executor) {
+		this.executor = executor;
+	}
+
+	@Override
+	public void execute(final Runnable task) {
+		taskQueue.offer(task);
+		schedule();
+	}
+
+	/**
+	 * Submit queue drain, unless one is already pending.
+	 */
+	private void schedule() {
+		if (taskQueue.isEmpty()) {
+			return;
+		}
+		if (isActive.compareAndSet(false, true)) {
+			try {
+				executor.execute(drain);
+			} catch (final Throwable e) {
+				isActive.set(false);
+				Plugin.logErrr("SerialExecutor#schedule: failure", e);
+			}
+		}
+	}
+
+}
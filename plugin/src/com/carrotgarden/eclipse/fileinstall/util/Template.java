@@ -0,0 +1,177 @@
+/**
+ * Copyright (C) 2010-2013 Andrei Pozolotin <Andrei.Pozolotin@gmail.com>
+ *
+ * All rights reserved. Licensed under the OSI BSD License.
+ *
+ * http://www.opensource.org/licenses/bsd-license.php
+ */
+package com.carrotgarden.eclipse.fileinstall.util;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Precompiled "@{...}" variable template.
+ * <p>
+ * Text is split once into literal segments and variable slots; rendering is
+ * a single pass into a reused per-thread buffer.
+ */
+public class Template {
+
+	/** Variable prefix. */
+	public static final String PREFIX = "@{";
+
+	/** Variable suffix. */
+	public static final String SUFFIX = "}";
+
+	private static final ThreadLocal<StringBuilder> //
+	BUFFER = new ThreadLocal<StringBuilder>() {
+		@Override
+		protected StringBuilder initialValue() {
+			return new StringBuilder(1024);
+		}
+	};
+
+	/**
+	 * Compile template text.
+	 *
+	 * @param text
+	 *            template text
+	 * @param nameList
+	 *            known variables, such as "@{name}"; slot index is position
+	 *            in this list
+	 * @throws IllegalArgumentException
+	 *             on unknown or unterminated variable
+	 */
+	public static Template compile(final String text, final String... nameList) {
+
+		final List<String> literalList = new ArrayList<String>();
+		final List<Integer> slotList = new ArrayList<Integer>();
+
+		int index = 0;
+
+		while (true) {
+
+			final int head = text.indexOf(PREFIX, index);
+			if (head < 0) {
+				break;
+			}
+
+			final int tail = text.indexOf(SUFFIX, head + PREFIX.length());
+			if (tail < 0) {
+				throw new IllegalArgumentException(
+						"Unterminated template variable: "
+								+ text.substring(head));
+			}
+
+			final String name = text.substring(head, tail + SUFFIX.length());
+			final int slot = indexOf(nameList, name);
+			if (slot < 0) {
+				throw new IllegalArgumentException(
+						"Unknown template variable: " + name);
+			}
+
+			literalList.add(text.substring(index, head));
+			slotList.add(slot);
+
+			index = tail + SUFFIX.length();
+
+		}
+
+		literalList.add(text.substring(index));
+
+		final int[] slotArray = new int[slotList.size()];
+		for (int k = 0; k < slotArray.length; k++) {
+			slotArray[k] = slotList.get(k);
+		}
+
+		return new Template(
+				literalList.toArray(new String[literalList.size()]),
+				slotArray, nameList.length);
+
+	}
+
+	private static int indexOf(final String[] nameList, final String name) {
+		for (int index = 0; index < nameList.length; index++) {
+			if (nameList[index].equals(name)) {
+				return index;
+			}
+		}
+		return -1;
+	}
+
+	/**
+	 * Literal segments, one more than slots.
+	 */
+	private final String[] literalArray;
+
+	/**
+	 * Variable slots between literal segments.
+	 */
+	private final int[] slotArray;
+
+	/**
+	 * Expected number of values.
+	 */
+	private final int valueCount;
+
+	/**
+	 * Rendered size without variable values.
+	 */
+	private final int literalSize;
+
+	private Template(final String[] literalArray, final int[] slotArray,
+			final int valueCount) {
+		this.literalArray = literalArray;
+		this.slotArray = slotArray;
+		this.valueCount = valueCount;
+		int size = 0;
+		for (final String literal : literalArray) {
+			size += literal.length();
+		}
+		this.literalSize = size;
+	}
+
+	/**
+	 * Verify if template has any variables.
+	 */
+	public boolean hasSlots() {
+		return slotArray.length > 0;
+	}
+
+	/**
+	 * Render template into a new text.
+	 *
+	 * @param valueArray
+	 *            variable values, in the order of compile name list
+	 */
+	public String render(final String... valueArray) {
+		if (!hasSlots()) {
+			return literalArray[0];
+		}
+		final StringBuilder text = BUFFER.get();
+		text.setLength(0);
+		render(text, valueArray);
+		return text.toString();
+	}
+
+	/**
+	 * Render template into provided buffer.
+	 *
+	 * @param valueArray
+	 *            variable values, in the order of compile name list
+	 */
+	public void render(final StringBuilder text, final String... valueArray) {
+		if (valueArray.length != valueCount) {
+			throw new IllegalArgumentException("Expected " + valueCount
+					+ " values, got " + valueArray.length);
+		}
+		text.ensureCapacity(text.length() + literalSize);
+		text.append(literalArray[0]);
+		for (int index = 0; index < slotArray.length; index++) {
+			text.append(valueArray[slotArray[index]]);
+			text.append(literalArray[index + 1]);
+		}
+	}
+
+}